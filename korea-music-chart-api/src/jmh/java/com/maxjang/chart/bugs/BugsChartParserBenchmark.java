@@ -0,0 +1,134 @@
+package com.maxjang.chart.bugs;
+
+import com.maxjang.chart.common.ChartFixtures;
+import com.maxjang.chart.common.ChartVO;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BugsChartParserBenchmark {
+    private static final String URL = "https://music.bugs.co.kr/chart";
+
+    private BugsChartService service;
+    private byte[] page;
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        service = new BugsChartService(null, null);
+        page = ChartFixtures.read("bugs-top100.html");
+        document = ChartFixtures.html(page, URL);
+        List<ChartVO> rows = service.parseChart(document);
+        if (rows.size() != 100 || !rows.equals(parseChartBaseline(document))) {
+            throw new IllegalStateException("bugs-top100.html parses differently in one pass and with six selects");
+        }
+    }
+
+    @Benchmark
+    public List<ChartVO> parsePage() throws IOException {
+        return service.parseChart(ChartFixtures.html(page, URL));
+    }
+
+    @Benchmark
+    public List<ChartVO> extractRows() {
+        return service.parseChart(document);
+    }
+
+    @Benchmark
+    public List<ChartVO> parsePageBaseline() throws IOException {
+        return parseChartBaseline(ChartFixtures.html(page, URL));
+    }
+
+    @Benchmark
+    public List<ChartVO> extractRowsBaseline() {
+        return parseChartBaseline(document);
+    }
+
+    // The six-select parser the one-pass parseChart replaced, kept as the benchmark baseline
+    static List<ChartVO> parseChartBaseline(Document doc1) {
+        List<String> artistNames = getTextsOfElements(doc1, "p.artist");
+
+        List<String> titles = getTextsOfElements(doc1, "p.title");
+
+        List<String> albumNames = getTextsOfElements(doc1, ".left .album");
+
+        List<String> albumArts = getAttrsOfElements(doc1, ".thumbnail img", "src");
+
+        List<String> songNumbers = getAttrsOfElements(doc1, ".trackList tbody > tr", "trackid");
+
+        List<String> rankStatuses = getRankStatus(doc1);
+
+        List<ChartVO> data = new ArrayList<>();
+        for (int i = 0; i < titles.size(); i++) {
+            String[] rank = rankStatuses.get(i).split(",");
+            data.add(ChartVO.builder()
+                    .rank(i + 1)
+                    .artistName(artistNames.get(i))
+                    .title(titles.get(i))
+                    .albumName(albumNames.get(i))
+                    .albumArt("https://" + albumArts.get(i).split("//")[1])
+                    .songNumber(songNumbers.get(i))
+                    .rankStatus(rank[0])
+                    .changedRank(Integer.parseInt(rank[1]))
+                    .build());
+        }
+        return data;
+    }
+
+    private static List<String> getTextsOfElements(Document doc, String selector) {
+        return doc.select(selector).stream()
+                .map(Element::text)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> getRankStatus(Document doc) {
+        List<String> hasChangedList = new ArrayList<>();
+        for (Element element : doc.select(".byChart tbody .ranking p")) {
+            String className = element.className().split(" ")[1];
+            String text = element.select("em").text();
+            switch (className) {
+                case "none":
+                    hasChangedList.add("static,0");
+                    break;
+                case "up":
+                    hasChangedList.add("up," + text);
+                    break;
+                case "down":
+                    hasChangedList.add("down," + text);
+                    break;
+                case "new":
+                case "renew":
+                    hasChangedList.add("new,0"); // 진입
+                    break;
+            }
+        }
+        return hasChangedList;
+    }
+
+    private static List<String> getAttrsOfElements(Document doc, String selector, String attr) {
+        return doc.select(selector).stream()
+                .map(element -> element.attr(attr))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,39 @@
+package com.maxjang.chart.common;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Chart pages saved under src/jmh/resources/fixtures, parsed the same way {@link UpstreamResponse#parse()}
+ * parses a live response so a benchmark measures document building plus row extraction.
+ */
+public final class ChartFixtures {
+
+    private ChartFixtures() {
+    }
+
+    public static byte[] read(String name) {
+        try (InputStream in = ChartFixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No fixture " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static Document html(byte[] page, String url) throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(page), "UTF-8", url, Parser.htmlParser());
+    }
+
+    public static Document xml(byte[] page, String url) throws IOException {
+        return Jsoup.parse(new ByteArrayInputStream(page), "UTF-8", url, Parser.xmlParser());
+    }
+}
@@ -0,0 +1,164 @@
+package com.maxjang.chart.flo;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxjang.chart.common.ChartVO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// The object-binding parser FloJsonReader replaced, kept as the benchmark baseline
+final class FloBindingParser {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private FloBindingParser() {
+    }
+
+    static List<ChartVO> parseChart(InputStream body) throws IOException {
+        return toChart(OBJECT_MAPPER.readValue(body, FloRoot.class));
+    }
+
+    private static List<ChartVO> toChart(FloRoot root) {
+        List<FloTrack> tracks = root != null && root.data != null ? root.data.trackList : null;
+        List<ChartVO> data = new ArrayList<>();
+        if (tracks == null) {
+            return data;
+        }
+
+        int chartRank = 1;
+        for (FloTrack track : tracks) {
+            String resolvedArtistName = resolveArtistName(track);
+            String[] rankStatus = resolveRankStatus(track);
+
+            data.add(ChartVO.builder()
+                    .rank(chartRank)
+                    .artistName(resolvedArtistName)
+                    .title(track != null ? track.name : null)
+                    .albumName(track != null && track.album != null ? track.album.title : null)
+                    .albumArt(resolveAlbumArt(track))
+                    .songNumber(track != null && track.id != null ? String.valueOf(track.id) : null)
+                    .rankStatus(rankStatus[0])
+                    .changedRank(Integer.parseInt(rankStatus[1]))
+                    .build());
+
+            chartRank++;
+        }
+
+        return data;
+    }
+
+    private static String resolveArtistName(FloTrack track) {
+        if (track == null) return null;
+
+        if (track.representationArtist != null && track.representationArtist.name != null) {
+            return track.representationArtist.name;
+        }
+
+        if (track.artistList != null && !track.artistList.isEmpty()) {
+            List<String> names = new ArrayList<>();
+            for (FloArtist artist : track.artistList) {
+                if (artist != null && artist.name != null && !artist.name.trim().isEmpty()) {
+                    names.add(artist.name.trim());
+                }
+            }
+            if (!names.isEmpty()) return String.join(", ", names);
+        }
+
+        return null;
+    }
+
+    private static String resolveAlbumArt(FloTrack track) {
+        if (track == null || track.album == null) return null;
+
+        if (track.album.img != null && track.album.img.urlFormat != null && !track.album.img.urlFormat.trim().isEmpty()) {
+            return track.album.img.urlFormat.replace("{size}", "350");
+        }
+
+        if (track.album.imgList != null) {
+            for (FloImage image : track.album.imgList) {
+                if (image != null && image.size != null && image.size == 350 && image.url != null) {
+                    return image.url;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static String[] resolveRankStatus(FloTrack track) {
+        // rank.rankBadge: positive=up, negative=down, 0=static
+        // rank.newYn: 'Y' => new
+        if (track != null && track.rank != null) {
+            if (isYes(track.rank.newYn)) return new String[]{"new", "0"};
+
+            Integer badge = track.rank.rankBadge;
+            if (badge == null || badge == 0) return new String[]{"static", "0"};
+            if (badge > 0) return new String[]{"up", String.valueOf(badge)};
+            return new String[]{"down", String.valueOf(Math.abs(badge))};
+        }
+
+        return new String[]{"static", "0"};
+    }
+
+    private static boolean isYes(String value) {
+        if (value == null) return false;
+        String v = value.trim().toLowerCase();
+        return v.equals("y") || v.equals("yes") || v.equals("true");
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloRoot {
+        public FloData data;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloData {
+        public List<FloTrack> trackList;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloTrack {
+        public Long id;
+        public String name;
+        public FloAlbum album;
+        public FloRepresentationArtist representationArtist;
+        public List<FloArtist> artistList;
+        public FloRank rank;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloAlbum {
+        public String title;
+        public FloImg img;
+        public List<FloImage> imgList;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloImg {
+        public String urlFormat;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloImage {
+        public Integer size;
+        public String url;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloArtist {
+        public String name;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloRepresentationArtist {
+        public String name;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class FloRank {
+        public String newYn;
+        public Integer rankBadge;
+    }
+}
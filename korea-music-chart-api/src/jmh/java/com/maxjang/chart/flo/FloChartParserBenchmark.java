@@ -0,0 +1,49 @@
+package com.maxjang.chart.flo;
+
+import com.maxjang.chart.common.ChartFixtures;
+import com.maxjang.chart.common.ChartVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloChartParserBenchmark {
+
+    private byte[] page;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = ChartFixtures.read("flo-top100.json");
+        List<ChartVO> streamed = FloJsonReader.readChart(new ByteArrayInputStream(page));
+        if (streamed.size() != 100 || !streamed.equals(FloBindingParser.parseChart(new ByteArrayInputStream(page)))) {
+            throw new IllegalStateException("flo-top100.json parses differently when streamed and bound");
+        }
+    }
+
+    @Benchmark
+    public List<ChartVO> parsePage() throws IOException {
+        return FloJsonReader.readChart(new ByteArrayInputStream(page));
+    }
+
+    @Benchmark
+    public List<ChartVO> parsePageBinding() throws IOException {
+        return FloBindingParser.parseChart(new ByteArrayInputStream(page));
+    }
+}
@@ -0,0 +1,137 @@
+package com.maxjang.chart.genie;
+
+import com.maxjang.chart.common.ChartFixtures;
+import com.maxjang.chart.common.ChartVO;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// One of the four Top200 pages a refresh parses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenieChartParserBenchmark {
+    private static final String URL = "https://www.genie.co.kr/chart/top200?ditc=D&rtm=Y&pg=1";
+
+    private GenieChartService service;
+    private byte[] page;
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        service = new GenieChartService(null, null);
+        page = ChartFixtures.read("genie-top200-pg1.html");
+        document = ChartFixtures.html(page, URL);
+        List<ChartVO> rows = service.parseChartPage(document, 0);
+        if (rows.size() != 50 || !rows.equals(parseChartPageBaseline(document, 0))) {
+            throw new IllegalStateException("genie-top200-pg1.html should parse to 50 rows, as the baseline does");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public List<ChartVO> parsePage() throws IOException {
+        return service.parseChartPage(ChartFixtures.html(page, URL), 0);
+    }
+
+    @Benchmark
+    public List<ChartVO> extractRows() {
+        return service.parseChartPage(document, 0);
+    }
+
+    // Per-row selector strings and Pattern.compile, as before the evaluators were precompiled
+    @Benchmark
+    public List<ChartVO> extractRowsBaseline() {
+        return parseChartPageBaseline(document, 0);
+    }
+
+    private static List<ChartVO> parseChartPageBaseline(Document doc, int rankOffset) {
+        List<ChartVO> data = new ArrayList<>();
+        for (Element row : doc.select("table.list-wrap tbody tr.list")) {
+            String songNumber = row.attr("songid");
+            String rankText = row.selectFirst("td.number") != null ? row.selectFirst("td.number").text() : "";
+            Integer rankValue = parseNumber(rankText);
+
+            Element titleEl = row.selectFirst("td.info a.title");
+            Element artistEl = row.selectFirst("td.info a.artist");
+            Element albumEl = row.selectFirst("td.info a.albumtitle");
+            Element artEl = row.selectFirst("td a.cover img");
+
+            String title = titleEl != null ? titleEl.text() : "";
+            String artist = artistEl != null ? artistEl.text() : "";
+            String albumName = albumEl != null ? albumEl.text() : "";
+            String albumArt = artEl != null ? artEl.attr("src") : "";
+            if (albumArt.startsWith("//")) {
+                albumArt = "https:" + albumArt;
+            }
+
+            String[] rankStatus = resolveRankStatus(row);
+
+            data.add(ChartVO.builder()
+                    .rank(rankValue != null ? rankValue : rankOffset + data.size() + 1)
+                    .artistName(artist)
+                    .title(title)
+                    .albumName(albumName)
+                    .albumArt(albumArt)
+                    .songNumber(songNumber)
+                    .rankStatus(rankStatus[0])
+                    .changedRank(Integer.parseInt(rankStatus[1]))
+                    .build());
+        }
+        return data;
+    }
+
+    private static String[] resolveRankStatus(Element row) {
+        Element statusEl = row.selectFirst("td.number span.rank span.rank-up, td.number span.rank span.rank-down, td.number span.rank span.rank-none, td.number span.rank span.rank-new, td.number span.rank span.rank-re");
+        if (statusEl == null) {
+            return new String[] {"static", "0"};
+        }
+
+        String className = statusEl.className();
+        String text = statusEl.text();
+
+        if (className.contains("rank-up")) {
+            return new String[] {"up", String.valueOf(parseNumber(text))};
+        }
+        if (className.contains("rank-down")) {
+            return new String[] {"down", String.valueOf(parseNumber(text))};
+        }
+        if (className.contains("rank-new") || className.contains("rank-re")) {
+            return new String[] {"new", "0"};
+        }
+        return new String[] {"static", "0"};
+    }
+
+    private static Integer parseNumber(String text) {
+        if (text == null) return null;
+        Matcher m = Pattern.compile("(\\d+)").matcher(text);
+        if (m.find()) {
+            return Integer.parseInt(m.group(1));
+        }
+        return null;
+    }
+}
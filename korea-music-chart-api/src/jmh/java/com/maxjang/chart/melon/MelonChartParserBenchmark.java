@@ -0,0 +1,159 @@
+package com.maxjang.chart.melon;
+
+import com.maxjang.chart.common.ChartFixtures;
+import com.maxjang.chart.common.ChartVO;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MelonChartParserBenchmark {
+    private static final String URL = "https://www.melon.com/chart/index.htm";
+
+    private MelonChartService service;
+    private byte[] page;
+    private Document document;
+
+    @Setup
+    public void setUp() throws IOException {
+        service = new MelonChartService(null, null);
+        page = ChartFixtures.read("melon-top100.html");
+        document = ChartFixtures.html(page, URL);
+        List<ChartVO> rows = service.parseChartRows(document);
+        if (rows.size() != 100 || !rows.equals(parseChartRowsBaseline(document))) {
+            throw new IllegalStateException("melon-top100.html should parse to 100 rows, as the baseline does");
+        }
+    }
+
+    // What one refresh pays: HTML parse plus row extraction
+    @Benchmark
+    public List<ChartVO> parsePage() throws IOException {
+        return service.parseChartRows(ChartFixtures.html(page, URL));
+    }
+
+    @Benchmark
+    public List<ChartVO> extractRows() {
+        return service.parseChartRows(document);
+    }
+
+    // Per-row selector strings and Pattern.compile, as before the evaluators were precompiled
+    @Benchmark
+    public List<ChartVO> extractRowsBaseline() {
+        return parseChartRowsBaseline(document);
+    }
+
+    private static List<ChartVO> parseChartRowsBaseline(Document doc) {
+        List<ChartVO> data = new ArrayList<>();
+
+        int chartRank = 0;
+        for (Element row : doc.select("tr[data-song-no]")) {
+            chartRank += 1;
+            String songNumber = row.attr("data-song-no");
+
+            Element titleEl = row.selectFirst(".rank01 a");
+            Element albumEl = row.selectFirst(".rank03 a");
+            Element artEl = row.selectFirst("a.image_typeAll img");
+            List<String> artistParts = row.select(".rank02 a").eachText();
+
+            if (titleEl == null) continue;
+            String title = titleEl.text();
+
+            String artistText;
+            if (artistParts != null && !artistParts.isEmpty()) {
+                artistText = String.join(", ", artistParts);
+            } else {
+                // Fallback selector for some markup variants
+                Element artistSpan = row.selectFirst(".rank02 span");
+                artistText = artistSpan != null ? artistSpan.text() : "";
+            }
+
+            String albumName = albumEl != null ? albumEl.text() : "";
+            String albumArt = artEl != null ? artEl.attr("src") : "";
+            String[] rankStatus = resolveRankStatus(row);
+
+            data.add(ChartVO.builder()
+                    .rank(chartRank)
+                    .artistName(artistText)
+                    .title(title)
+                    .albumName(albumName)
+                    .albumArt(albumArt)
+                    .songNumber(songNumber)
+                    .rankStatus(rankStatus[0])
+                    .changedRank(Integer.parseInt(rankStatus[1]))
+                    .build());
+        }
+
+        return data;
+    }
+
+    private static String[] resolveRankStatus(Element row) {
+        Element rankWrap = row.selectFirst(".rank_wrap");
+        if (rankWrap == null) {
+            return new String[] {"static", "0"};
+        }
+        Element icon = rankWrap.selectFirst(".bullet_icons");
+        String iconClass = icon != null ? icon.className() : "";
+
+        Element upValue = rankWrap.selectFirst("span.up");
+        Element downValue = rankWrap.selectFirst("span.down");
+        Element noneValue = rankWrap.selectFirst("span.none");
+
+        if (iconClass.contains("rank_up")) {
+            return new String[] {"up", String.valueOf(parseDelta(upValue != null ? upValue.text() : ""))};
+        }
+        if (iconClass.contains("rank_down")) {
+            return new String[] {"down", String.valueOf(parseDelta(downValue != null ? downValue.text() : ""))};
+        }
+        if (iconClass.contains("rank_new") || iconClass.contains("rank_re")) {
+            return new String[] {"new", "0"};
+        }
+        if (iconClass.contains("rank_static")) {
+            return new String[] {"static", "0"};
+        }
+
+        String text = rankWrap.text();
+        if (text.contains("상승")) {
+            return new String[] {"up", String.valueOf(parseDelta(text))};
+        }
+        if (text.contains("하락")) {
+            return new String[] {"down", String.valueOf(parseDelta(text))};
+        }
+        if (text.contains("순위 동일")) {
+            return new String[] {"static", "0"};
+        }
+        if (noneValue != null) {
+            return new String[] {"static", "0"};
+        }
+
+        return new String[] {"static", "0"};
+    }
+
+    private static int parseDelta(String text) {
+        Matcher m = Pattern.compile("(\\d+)").matcher(text);
+        if (m.find()) {
+            return Integer.parseInt(m.group(1));
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,79 @@
+package com.maxjang.chart.vibe;
+
+import com.maxjang.chart.common.ChartFixtures;
+import com.maxjang.chart.common.ChartVO;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VibeChartParserBenchmark {
+    private static final String URL = "https://apis.naver.com/vibeWeb/musicapiweb/vibe/v1/chart/track/total";
+
+    @Param({"vibe-top100.xml", "vibe-today-top300.xml"})
+    public String fixture;
+
+    private byte[] page;
+
+    @Setup
+    public void setUp() throws IOException {
+        page = ChartFixtures.read(fixture);
+        List<ChartVO> streamed = VibeXmlReader.readChart(new ByteArrayInputStream(page), null);
+        if (streamed.isEmpty() || !streamed.equals(parseDom(ChartFixtures.xml(page, URL)))) {
+            throw new IllegalStateException(fixture + " parses differently with StAX and jsoup");
+        }
+    }
+
+    @Benchmark
+    public List<ChartVO> parsePage() throws IOException {
+        return VibeXmlReader.readChart(new ByteArrayInputStream(page), null);
+    }
+
+    // The jsoup DOM parser the StAX reader replaced, kept as the baseline
+    @Benchmark
+    public List<ChartVO> parsePageDom() throws IOException {
+        return parseDom(ChartFixtures.xml(page, URL));
+    }
+
+    private static List<ChartVO> parseDom(Document doc) {
+        List<ChartVO> data = new ArrayList<>();
+        for (Element element : doc.select("response > result > chart > items > tracks > track")) {
+            String rankVariation = element.select("rank > rankVariation").text();
+            String[] rank = rankVariation.equals("0") ? new String[] {"static", "0"}
+                    : rankVariation.contains("-") ? new String[] {"down", String.valueOf(Math.abs(Integer.parseInt(rankVariation)))}
+                    : new String[] {"up", rankVariation};
+            data.add(ChartVO.builder()
+                    .rank(Integer.parseInt(element.select("rank > currentRank").text()))
+                    .artistName(element.select("album > artists > artist > artistName").text())
+                    .title(element.select("trackTitle").text())
+                    .albumName(element.select("album > albumTitle").text())
+                    .albumArt(element.select("album > imageUrl").text())
+                    .songNumber(element.select("trackId").text())
+                    .rankStatus(rank[0])
+                    .changedRank(Integer.parseInt(rank[1]))
+                    .build());
+        }
+        return data;
+    }
+}
@@ -0,0 +1,34 @@
+package com.maxjang.chart.aggregate;
+
+import com.maxjang.chart.common.ResponseFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/charts")
+public class AggregateChartController {
+
+    private final AggregateChartService aggregateChartService;
+
+    @Autowired
+    public AggregateChartController(AggregateChartService aggregateChartService) {
+        this.aggregateChartService = aggregateChartService;
+    }
+
+    // providers: comma separated providers (melon) or charts (melon/hot100-d30); all charts when omitted
+    @GetMapping("/{artistName}")
+    public CompletableFuture<ResponseFormat<ProviderChartVO>> getChartsByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String providers
+    ) {
+        return aggregateChartService.getCharts(artistName, providers).thenApply(ResponseFormat::new);
+    }
+}
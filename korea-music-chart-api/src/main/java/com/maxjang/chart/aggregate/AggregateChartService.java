@@ -0,0 +1,85 @@
+package com.maxjang.chart.aggregate;
+
+import com.maxjang.chart.common.ChartSnapshot;
+import com.maxjang.chart.common.ChartSnapshotCache;
+import com.maxjang.chart.common.ChartType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Looks one artist up in several charts at once. Every chart is read from the snapshot cache
+ * without blocking and gets the same deadline, so a slow or failing provider only marks its entry
+ * instead of failing the response.
+ */
+@Service
+public class AggregateChartService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregateChartService.class);
+
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final Duration providerTimeout;
+
+    @Autowired
+    public AggregateChartService(
+            ChartSnapshotCache chartSnapshotCache,
+            @Value("${chart.aggregate.provider-timeout:PT3S}") Duration providerTimeout
+    ) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.providerTimeout = providerTimeout;
+    }
+
+    public CompletableFuture<List<ProviderChartVO>> getCharts(String artistName, String providers) {
+        List<CompletableFuture<ProviderChartVO>> results = new ArrayList<>();
+        for (ChartType type : ChartType.resolve(providers)) {
+            results.add(getChart(type, artistName));
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    private CompletableFuture<ProviderChartVO> getChart(ChartType type, String artistName) {
+        CompletableFuture<ChartSnapshot> snapshot;
+        try {
+            snapshot = chartSnapshotCache.getAsync(type);
+        } catch (RuntimeException ex) {
+            snapshot = CompletableFuture.failedFuture(ex);
+        }
+        // thenApply first: the deadline belongs to this response, not to the shared load it waits on.
+        return snapshot
+                .thenApply(loaded -> ProviderChartVO.builder()
+                        .chart(type.getId())
+                        .status("ok")
+                        .fetchedAt(loaded.getFetchedAt().toString())
+                        .data(loaded.filterByArtist(artistName))
+                        .build())
+                .orTimeout(providerTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                .exceptionally(ex -> failed(type, ex));
+    }
+
+    // Clients get a stable code; the cause (exception, upstream URL) only goes to the log.
+    private static ProviderChartVO failed(ChartType type, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof TimeoutException) {
+            return ProviderChartVO.builder().chart(type.getId()).status("timeout").build();
+        }
+        logger.warn("Failed to read {} chart for an aggregate lookup", type.getId(), cause);
+        return ProviderChartVO.builder()
+                .chart(type.getId())
+                .status("error")
+                .error(cause instanceof IOException ? "upstream_unavailable" : "internal_error")
+                .build();
+    }
+}
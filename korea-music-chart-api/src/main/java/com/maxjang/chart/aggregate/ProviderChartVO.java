@@ -0,0 +1,19 @@
+package com.maxjang.chart.aggregate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.maxjang.chart.common.ChartVO;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProviderChartVO {
+    private String chart; // e.g. melon/hot100-d30
+    private String status; // ok, timeout, error
+    private String fetchedAt;
+    private String error; // upstream_unavailable, internal_error
+    private List<ChartVO> data;
+}
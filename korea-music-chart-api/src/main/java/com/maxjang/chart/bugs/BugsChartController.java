@@ -1,45 +1,73 @@
 package com.maxjang.chart.bugs;
 
+import com.maxjang.chart.common.ChartResponses;
 import com.maxjang.chart.common.ChartVO;
 import com.maxjang.chart.common.DetailVO;
+import com.maxjang.chart.common.LookupCache;
+import com.maxjang.chart.common.LookupExecutor;
 import com.maxjang.chart.common.ResponseFormat;
+import com.maxjang.chart.common.SearchCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/bugs")
 public class BugsChartController {
 
     private final BugsChartService bugsChartService;
+    private final LookupExecutor lookupExecutor;
+    private final LookupCache lookupCache;
 
     @Autowired
-    public BugsChartController(BugsChartService bugsChartService) {
+    public BugsChartController(BugsChartService bugsChartService, LookupExecutor lookupExecutor, LookupCache lookupCache) {
         this.bugsChartService = bugsChartService;
+        this.lookupExecutor = lookupExecutor;
+        this.lookupCache = lookupCache;
     }
 
     @GetMapping("/chart")
-    public ResponseFormat<ChartVO> getBugsChartTop100() throws Exception {
-        return new ResponseFormat<>(bugsChartService.getBugsChartTop100(false, null));
+    public ResponseEntity<?> getBugsChartTop100(
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(bugsChartService.getBugsChartSnapshot(at), null, request);
     }
 
     @GetMapping("/chart/{artistName}")
-    public List<ChartVO> getBugsChartTop100ByArtistName(@PathVariable String artistName) throws Exception {
-        return bugsChartService.getBugsChartTop100(true, artistName);
+    public ResponseEntity<List<ChartVO>> getBugsChartTop100ByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chartList(bugsChartService.getBugsChartSnapshot(at), artistName, request);
     }
 
     @GetMapping("/album/{artistName}")
-    public ResponseFormat<DetailVO> getAlbums(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(bugsChartService.getAlbums(artistName));
+    public CompletableFuture<ResponseFormat<DetailVO>> getAlbums(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String cursor
+    ) {
+        SearchCursor searchCursor = SearchCursor.parse(cursor, SearchCursor.UNKNOWN_PAGE_SIZE);
+        int page = searchCursor.getPage();
+        return lookupCache.getAlbums("bugs", artistName, page, () -> lookupExecutor.submit("bugs", () -> bugsChartService.getAlbums(artistName, page)))
+                .thenApply(searchCursor::respond);
     }
 
     @GetMapping("/song/{albumNumber}")
-    public ResponseFormat<DetailVO> getSongs(@PathVariable String albumNumber) throws Exception {
-        return new ResponseFormat<>(bugsChartService.getSongLists(albumNumber));
+    public CompletableFuture<ResponseFormat<DetailVO>> getSongs(@PathVariable String albumNumber) {
+        return lookupCache.getSongLists("bugs", albumNumber, () -> lookupExecutor.submit("bugs", () -> bugsChartService.getSongLists(albumNumber)))
+                .thenApply(ResponseFormat::new);
     }
 
 
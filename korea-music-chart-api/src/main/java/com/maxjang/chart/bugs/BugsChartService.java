@@ -1,112 +1,144 @@
 package com.maxjang.chart.bugs;
 
+import com.maxjang.chart.common.ChartRows;
+import com.maxjang.chart.common.ChartSnapshot;
+import com.maxjang.chart.common.ChartSnapshotCache;
+import com.maxjang.chart.common.ChartType;
 import com.maxjang.chart.common.ChartVO;
+import com.maxjang.chart.common.UpstreamHttpClient;
+import com.maxjang.chart.common.UpstreamLookup;
 import com.maxjang.chart.common.DetailVO;
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class BugsChartService {
-    // Get Top100 Chart
-    public List<ChartVO> getBugsChartTop100(boolean isSearch, String artistName) throws Exception {
-        String url1 = "https://music.bugs.co.kr/chart";
-        Document doc1 = Jsoup.connect(url1).userAgent("Chrome").get();
+    // Parsed once: selectFirst(String) would re-parse the query for every row.
+    private static final Evaluator TRACK_ROWS = QueryParser.parse(".trackList tbody > tr[trackid]");
+    private static final Evaluator TITLE = QueryParser.parse("p.title");
+    private static final Evaluator ARTIST = QueryParser.parse("p.artist");
+    private static final Evaluator ALBUM = QueryParser.parse("a.album");
+    private static final Evaluator ALBUM_ART = QueryParser.parse("a.thumbnail img");
+    private static final Evaluator RANK_CHANGE = QueryParser.parse(".ranking p.change");
+    private static final Evaluator RANK_CHANGE_VALUE = QueryParser.parse("em");
 
-        List<String> artistNames = getTextsOfElements(doc1, "p.artist");
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final UpstreamHttpClient upstreamHttpClient;
 
-        List<String> titles = getTextsOfElements(doc1, "p.title");
+    @Autowired
+    public BugsChartService(ChartSnapshotCache chartSnapshotCache, UpstreamHttpClient upstreamHttpClient) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.upstreamHttpClient = upstreamHttpClient;
+    }
 
-        List<String> albumNames = getTextsOfElements(doc1, ".left .album");
+    @PostConstruct
+    public void registerCharts() {
+        chartSnapshotCache.register(ChartType.BUGS_TOP100, this::fetchChart);
+    }
+
+    // Get Top100 Chart
+    public List<ChartVO> getBugsChartTop100(boolean isSearch, String artistName) throws Exception {
+        ChartSnapshot snapshot = getBugsChartSnapshot();
+        if (isSearch) { // 아티스트 필터링 검색일 때
+            return snapshot.filterByArtist(artistName);
+        }
+        return snapshot.getRows();
+    }
 
-        List<String> albumArts = getAttrsOfElements(doc1, ".thumbnail img", "src");
+    public ChartSnapshot getBugsChartSnapshot() throws Exception {
+        return getBugsChartSnapshot(null);
+    }
 
-        List<String> songNumbers = getAttrsOfElements(doc1, ".trackList tbody > tr", "trackid");
+    public ChartSnapshot getBugsChartSnapshot(String at) throws Exception {
+        return chartSnapshotCache.get(ChartType.BUGS_TOP100, at);
+    }
 
-        List<String> rankStatuses = getRankStatus(doc1);
+    private List<ChartVO> fetchChart() throws Exception {
+        String url1 = "https://music.bugs.co.kr/chart";
+        return upstreamHttpClient.request(url1).userAgent("Chrome")
+                .getIfModified(ChartType.BUGS_TOP100.getId(), response -> ChartRows.of(parseChart(response.parse())))
+                .getValue();
+    }
 
+    // One pass over the track rows; every field is read from its own row, so rows can't drift apart.
+    List<ChartVO> parseChart(Document doc) {
         List<ChartVO> data = new ArrayList<>();
-        for (int i = 0; i < titles.size(); i++) {
-            String[] rank = rankStatuses.get(i).split(",");
-            if (isSearch) { // 아티스트 필터링 검색일 때
-                if (artistNames.get(i).contains(artistName)) { // 해당 아티스트만 리스트에 추가
-                    data.add(ChartVO.builder()
-                            .rank(i + 1)
-                            .artistName(artistNames.get(i))
-                            .title(titles.get(i))
-                            .albumName(albumNames.get(i))
-                            .albumArt("https://" + albumArts.get(i).split("//")[1])
-                            .songNumber(songNumbers.get(i))
-                            .rankStatus(rank[0])
-                            .changedRank(Integer.parseInt(rank[1]))
-                            .build());
-                }
-            } else { // TOP 100 차트
-                data.add(ChartVO.builder()
-                        .rank(i + 1)
-                        .artistName(artistNames.get(i))
-                        .title(titles.get(i))
-                        .albumName(albumNames.get(i))
-                        .albumArt("https://" + albumArts.get(i).split("//")[1])
-                        .songNumber(songNumbers.get(i))
-                        .rankStatus(rank[0])
-                        .changedRank(Integer.parseInt(rank[1]))
-                        .build());
-            }
+        for (Element row : doc.select(TRACK_ROWS)) {
+            Element titleEl = row.selectFirst(TITLE);
+            if (titleEl == null) continue;
+            Element artistEl = row.selectFirst(ARTIST);
+            Element albumEl = row.selectFirst(ALBUM);
+            Element artEl = row.selectFirst(ALBUM_ART);
+            Element changeEl = row.selectFirst(RANK_CHANGE);
+
+            ChartVO.ChartVOBuilder chart = ChartVO.builder()
+                    .rank(data.size() + 1)
+                    .artistName(artistEl != null ? artistEl.text() : "")
+                    .title(titleEl.text())
+                    .albumName(albumEl != null ? albumEl.text() : "")
+                    .albumArt(artEl != null ? toHttps(artEl.attr("src")) : "")
+                    .songNumber(row.attr("trackid"));
+            setRankStatus(chart, changeEl);
+            data.add(chart.build());
         }
         return data;
     }
 
-    // Get tag value
-    private List<String> getTextsOfElements(Document doc, String selector) {
-        return doc.select(selector).stream()
-                .map(Element::text)
-                .collect(Collectors.toList());
+    // Get RankStatus
+    private void setRankStatus(ChartVO.ChartVOBuilder chart, Element changeEl) {
+        if (changeEl != null && changeEl.hasClass("up")) {
+            chart.rankStatus("up").changedRank(parseChangedRank(changeEl));
+        } else if (changeEl != null && changeEl.hasClass("down")) {
+            chart.rankStatus("down").changedRank(parseChangedRank(changeEl));
+        } else if (changeEl != null && (changeEl.hasClass("new") || changeEl.hasClass("renew"))) {
+            chart.rankStatus("new").changedRank(0); // 진입
+        } else {
+            chart.rankStatus("static").changedRank(0);
+        }
     }
 
-    // Get RankStatus
-    private List<String> getRankStatus(Document doc) {
-        List<String> hasChangedList = new ArrayList<>();
-        for (Element element : doc.select(".byChart tbody .ranking p")) {
-            String className = element.className().split(" ")[1];
-            String text = element.select("em").text();
-            switch (className) {
-                case "none":
-                    hasChangedList.add("static,0");
-                    break;
-                case "up":
-                    hasChangedList.add("up," + text);
-                    break;
-                case "down":
-                    hasChangedList.add("down," + text);
-                    break;
-                case "new":
-                case "renew":
-                    hasChangedList.add("new,0"); // 진입
-                    break;
+    private int parseChangedRank(Element changeEl) {
+        Element em = changeEl.selectFirst(RANK_CHANGE_VALUE);
+        String text = em != null ? em.text() : "";
+        int value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
             }
         }
-        return hasChangedList;
+        return value;
     }
 
-    // Get tag attribute values
-    private List<String> getAttrsOfElements(Document doc, String selector, String attr) {
-        return doc.select(selector).stream()
-                .map(element -> element.attr(attr))
-                .collect(Collectors.toList());
+    // Bugs serves protocol-relative and http image URLs; always hand out https.
+    private String toHttps(String src) {
+        int scheme = src.indexOf("//");
+        return scheme < 0 ? src : "https://" + src.substring(scheme + 2);
     }
 
     // Find AlbumNames By ArtistName
-    public List<DetailVO> getAlbums(String artistName) throws Exception {
+    public List<DetailVO> getAlbums(String artistName, int page) throws Exception {
+        return albumLookup(artistName, page).get();
+    }
+
+    // page: 1-based search result page
+    public UpstreamLookup<List<DetailVO>> albumLookup(String artistName, int page) {
         String url = "https://music.bugs.co.kr/search/album?q="
-                + artistName
-                + "&target=ARTIST_ONLY&flac_only=false&sort=A";
-        Document doc = Jsoup.connect(url).userAgent("Chrome").get();
+                + UpstreamHttpClient.encode(artistName)
+                + "&target=ARTIST_ONLY&flac_only=false&sort=A&page=" + page;
+        return new UpstreamLookup<>(upstreamHttpClient.request(url).userAgent("Chrome"),
+                response -> parseAlbums(response.parse()));
+    }
+
+    private static List<DetailVO> parseAlbums(Document doc) {
         List<DetailVO> data = new ArrayList<>();
         for (Element element : doc.select(".albumInfo")) {
                 data.add(DetailVO.builder()
@@ -119,8 +151,16 @@ public class BugsChartService {
 
     // Find Songs By AlbumNumber
     public List<DetailVO> getSongLists(String albumNumber) throws Exception {
-        String url = "https://music.bugs.co.kr/album/" + albumNumber;
-        Document doc = Jsoup.connect(url).userAgent("Chrome").get();
+        return songListLookup(albumNumber).get();
+    }
+
+    public UpstreamLookup<List<DetailVO>> songListLookup(String albumNumber) {
+        String url = "https://music.bugs.co.kr/album/" + UpstreamHttpClient.encode(albumNumber);
+        return new UpstreamLookup<>(upstreamHttpClient.request(url).userAgent("Chrome"),
+                response -> parseSongLists(response.parse()));
+    }
+
+    private static List<DetailVO> parseSongLists(Document doc) {
         List<DetailVO> data = new ArrayList<>();
         for (Element element : doc.select(".track tbody tr")) {
             data.add(DetailVO.builder()
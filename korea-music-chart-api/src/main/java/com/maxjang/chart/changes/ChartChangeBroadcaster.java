@@ -0,0 +1,140 @@
+package com.maxjang.chart.changes;
+
+import com.maxjang.chart.common.ChartDiff;
+import com.maxjang.chart.common.ChartDiffVO;
+import com.maxjang.chart.common.ChartSnapshot;
+import com.maxjang.chart.common.ChartSnapshotCache;
+import com.maxjang.chart.common.ChartType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pushes the rank changes of every new snapshot to Server-Sent Events subscribers, filtered by chart
+ * and artist. Diffs are computed and sent on one dedicated thread, so a slow client never holds up a
+ * refresh; a client whose connection fails is dropped and reconnects on its own (EventSource does).
+ */
+@Component
+@Profile("!reactive")
+public class ChartChangeBroadcaster {
+
+    // Below the idle timeouts of common proxies.
+    private static final Duration KEEP_ALIVE = Duration.ofSeconds(30);
+    private static final Duration RECONNECT = Duration.ofSeconds(10);
+
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final TaskScheduler taskScheduler;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor();
+
+    @Autowired
+    public ChartChangeBroadcaster(
+            ChartSnapshotCache chartSnapshotCache,
+            TaskScheduler taskScheduler,
+            @Value("${chart.changes.timeout:PT30M}") Duration timeout,
+            @Value("${chart.changes.max-subscribers:500}") int maxSubscribers
+    ) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.taskScheduler = taskScheduler;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    @PostConstruct
+    public void start() {
+        chartSnapshotCache.addListener(this::onSnapshot);
+        taskScheduler.scheduleAtFixedRate(() -> sender.execute(this::keepAlive), KEEP_ALIVE);
+    }
+
+    public SseEmitter subscribe(List<ChartType> types, String artistName) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, EnumSet.copyOf(types), artistName);
+        // Runs after a timeout or an error as well.
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // Opens the stream right away (headers go out with the first event) and sets the retry delay.
+        send(subscriber, SseEmitter.event().reconnectTime(RECONNECT.toMillis()).comment("subscribed"));
+        return emitter;
+    }
+
+    private void onSnapshot(ChartSnapshot previous, ChartSnapshot snapshot) {
+        if (previous == null || subscribers.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> broadcast(snapshot.getType(), ChartDiff.between(previous, snapshot)));
+    }
+
+    private void broadcast(ChartType type, ChartDiffVO diff) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.types.contains(type)) {
+                continue;
+            }
+            ChartDiffVO filtered = ChartDiff.filterByArtist(diff, subscriber.artistName);
+            if (filtered.getChanges().isEmpty()) {
+                continue;
+            }
+            send(subscriber, SseEmitter.event()
+                    .name("change")
+                    .id(diff.getChart() + "@" + diff.getVersion())
+                    .data(filtered, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void keepAlive() {
+        for (Subscriber subscriber : subscribers) {
+            send(subscriber, SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away (or the emitter already completed); the container finishes the request.
+            subscribers.remove(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<ChartType> types;
+        private final String artistName;
+
+        private Subscriber(SseEmitter emitter, Set<ChartType> types, String artistName) {
+            this.emitter = emitter;
+            this.types = types;
+            this.artistName = artistName;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.maxjang.chart.changes;
+
+import com.maxjang.chart.common.ChartType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/changes")
+public class ChartChangeController {
+
+    private final ChartChangeBroadcaster chartChangeBroadcaster;
+
+    @Autowired
+    public ChartChangeController(ChartChangeBroadcaster chartChangeBroadcaster) {
+        this.chartChangeBroadcaster = chartChangeBroadcaster;
+    }
+
+    // Server-Sent Events: one "change" event per refreshed chart with entered/dropped/up/down rows.
+    // providers: as in /charts/{artistName}; artistName: only changes of that artist
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getChanges(
+            @RequestParam(required = false) String providers,
+            @RequestParam(required = false) String artistName
+    ) {
+        List<ChartType> types = ChartType.resolve(providers);
+        if (types.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown providers: " + providers);
+        }
+        return chartChangeBroadcaster.subscribe(types, artistName);
+    }
+}
@@ -0,0 +1,78 @@
+package com.maxjang.chart.common;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from the two-character sequences of each artist name to row positions of one
+ * snapshot. A row can only contain a query if it contains every pair of adjacent characters of it,
+ * so the rarest pair of the query narrows the rows to check; the check itself is still the plain
+ * {@code contains}, so the index changes how fast rows are found, never which ({@link #matches}).
+ */
+final class ArtistIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<Integer, int[]> positions;
+
+    private ArtistIndex(Map<Integer, int[]> positions) {
+        this.positions = positions;
+    }
+
+    static ArtistIndex build(ChartRows rows) {
+        Map<Integer, int[]> positions = new HashMap<>();
+        Set<Integer> pairs = new LinkedHashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            String artistName = rows.getArtistName(i);
+            if (artistName == null) {
+                continue;
+            }
+
+            pairs.clear();
+            for (int c = 0; c + 1 < artistName.length(); c++) {
+                pairs.add(pair(artistName, c));
+            }
+            for (Integer pair : pairs) {
+                int[] existing = positions.get(pair);
+                if (existing == null) {
+                    positions.put(pair, new int[] {i});
+                } else {
+                    int[] grown = Arrays.copyOf(existing, existing.length + 1);
+                    grown[existing.length] = i;
+                    positions.put(pair, grown);
+                }
+            }
+        }
+        return new ArtistIndex(positions);
+    }
+
+    // Rows that may contain the needle, in chart order; null when it is too short to narrow (scan all).
+    int[] candidates(String needle) {
+        if (needle.length() < 2) {
+            return null;
+        }
+        int[] fewest = null;
+        for (int c = 0; c + 1 < needle.length(); c++) {
+            int[] rows = positions.get(pair(needle, c));
+            if (rows == null) {
+                return NONE;
+            }
+            if (fewest == null || rows.length < fewest.length) {
+                fewest = rows;
+            }
+        }
+        return fewest;
+    }
+
+    private static int pair(String value, int index) {
+        return value.charAt(index) << 16 | value.charAt(index + 1);
+    }
+
+    // The one artist filter rule, for chart rows and change events alike: a trimmed, case-sensitive substring.
+    static boolean matches(String artistName, String query) {
+        return artistName != null && artistName.contains(query.trim());
+    }
+}
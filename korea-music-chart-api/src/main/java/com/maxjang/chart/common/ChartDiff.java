@@ -0,0 +1,83 @@
+package com.maxjang.chart.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rank changes between two snapshots of one chart, matched by songNumber (title + artist when a row
+ * has none): songs that entered, dropped out, or moved. Unchanged rows are left out, so a quiet hour
+ * comes down to a handful of entries instead of the whole chart.
+ */
+public final class ChartDiff {
+
+    private ChartDiff() {
+    }
+
+    public static ChartDiffVO between(ChartSnapshot previous, ChartSnapshot snapshot) {
+        Map<String, ChartVO> before = new HashMap<>();
+        for (ChartVO row : previous.getRows()) {
+            before.putIfAbsent(key(row), row);
+        }
+
+        List<RankChangeVO> changes = new ArrayList<>();
+        for (ChartVO row : snapshot.getRows()) {
+            ChartVO old = before.remove(key(row));
+            if (old == null) {
+                changes.add(change("entered", row).rank(row.getRank()).build());
+            } else if (old.getRank() != null && row.getRank() != null && !old.getRank().equals(row.getRank())) {
+                int moved = old.getRank() - row.getRank();
+                changes.add(change(moved > 0 ? "up" : "down", row)
+                        .rank(row.getRank())
+                        .previousRank(old.getRank())
+                        .changedRank(Math.abs(moved))
+                        .build());
+            }
+        }
+        // What is left in before is no longer on the chart, listed in its old order.
+        for (ChartVO row : previous.getRows()) {
+            if (before.remove(key(row)) != null) {
+                changes.add(change("dropped", row).previousRank(row.getRank()).build());
+            }
+        }
+
+        return ChartDiffVO.builder()
+                .chart(snapshot.getType().getId())
+                .version(snapshot.getVersion())
+                .previousVersion(previous.getVersion())
+                .fetchedAt(snapshot.getFetchedAt().toString())
+                .changes(changes)
+                .build();
+    }
+
+    // The rows ChartSnapshot#filterByArtist would return for the query; blank = every change.
+    public static ChartDiffVO filterByArtist(ChartDiffVO diff, String artistName) {
+        if (artistName == null || artistName.trim().isEmpty()) {
+            return diff;
+        }
+
+        List<RankChangeVO> changes = new ArrayList<>();
+        for (RankChangeVO change : diff.getChanges()) {
+            if (ArtistIndex.matches(change.getArtistName(), artistName)) {
+                changes.add(change);
+            }
+        }
+        return diff.toBuilder().changes(changes).build();
+    }
+
+    private static RankChangeVO.RankChangeVOBuilder change(String type, ChartVO row) {
+        return RankChangeVO.builder()
+                .change(type)
+                .songNumber(row.getSongNumber())
+                .title(row.getTitle())
+                .artistName(row.getArtistName());
+    }
+
+    private static String key(ChartVO row) {
+        if (row.getSongNumber() != null && !row.getSongNumber().isEmpty()) {
+            return row.getSongNumber();
+        }
+        return row.getTitle() + "\u0000" + row.getArtistName();
+    }
+}
@@ -0,0 +1,18 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChartDiffVO {
+    private String chart; // e.g. melon/top100
+    private Long version;
+    private Long previousVersion;
+    private String fetchedAt;
+    private List<RankChangeVO> changes;
+}
@@ -0,0 +1,393 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every snapshot the cache builds, appended to one {@link HistorySegment} per provider per KST day
+ * ({@code <dir>/melon/2026-10-18.seg}), so past charts can be answered from disk without scraping.
+ * Snapshots whose rows repeat the last record of their chart are not written again, including the
+ * first refresh after a warm start; "the chart at 03:00" is the last record fetched at or before 03:00.
+ *
+ * <p>Rows are stored field by field without JSON keys: songNumber first, so a rank history can
+ * compare it in the mapped file without decoding the rest of the row.
+ */
+@Component
+public class ChartHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChartHistoryStore.class);
+    private static final ZoneId KST = ZoneId.of("Asia/Seoul");
+    private static final String SUFFIX = ".seg";
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    // A chart at 00:30 is usually still the one fetched the evening before.
+    private static final int LOOKBACK_DAYS = 1;
+    private static final int MAX_DECODED_SNAPSHOTS = 16;
+    // Older days are only read (by /history), a few at a time.
+    private static final int MAX_PAST_SEGMENTS = 8;
+
+    private final Path dir;
+    private final Duration retention;
+    private final ObjectMapper objectMapper;
+    // Days still appended to or looked back on; older ones are dropped when a new day starts.
+    private final Map<Path, HistorySegment> segments = new ConcurrentHashMap<>();
+    // Older days, least recently read evicted, so a long /history range does not keep every mapping alive.
+    private final Map<Path, HistorySegment> pastSegments = new LinkedHashMap<Path, HistorySegment>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, HistorySegment> eldest) {
+            return size() > MAX_PAST_SEGMENTS;
+        }
+    };
+    // Encoded rows of the last record per chart, read back from disk the first time a chart is appended.
+    private final Map<ChartType, byte[]> lastRows = new ConcurrentHashMap<>();
+    private final Map<String, ChartSnapshot> decoded = new LinkedHashMap<String, ChartSnapshot>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ChartSnapshot> eldest) {
+            return size() > MAX_DECODED_SNAPSHOTS;
+        }
+    };
+
+    @Autowired
+    public ChartHistoryStore(
+            @Value("${chart.history.dir:chart-history}") Path dir,
+            @Value("${chart.history.retention:P90D}") Duration retention,
+            ObjectMapper objectMapper
+    ) {
+        this.dir = dir;
+        this.retention = retention;
+        this.objectMapper = objectMapper;
+    }
+
+    public void append(ChartSnapshot snapshot) throws IOException {
+        ChartType type = snapshot.getType();
+        LocalDate day = snapshot.getFetchedAt().atZone(KST).toLocalDate();
+        Path file = segmentFile(type.getProvider(), day);
+        boolean newDay = !Files.exists(file);
+
+        byte[] rows = encodeRows(snapshot.getRows());
+        byte[] last = lastRows.get(type);
+        if (last == null) {
+            last = lastRecordedRows(type);
+        }
+        if (Arrays.equals(rows, last)) {
+            logger.debug("{} {} repeats the last recorded chart, not appended", type, snapshot.getVersion());
+            lastRows.put(type, rows);
+            return;
+        }
+
+        segment(file).append(encode(snapshot, rows));
+        lastRows.put(type, rows);
+        if (newDay) {
+            LocalDate oldestCurrent = day.minusDays(LOOKBACK_DAYS);
+            segments.keySet().removeIf(path -> dayOf(path).isBefore(oldestCurrent));
+            deleteExpired(type.getProvider(), day);
+        }
+    }
+
+    // The snapshot of a chart as it was at the given time, or null when nothing was recorded by then.
+    public ChartSnapshot snapshotAt(ChartType type, Instant at) throws IOException {
+        LocalDate day = at.atZone(KST).toLocalDate();
+        for (int back = 0; back <= LOOKBACK_DAYS; back++) {
+            Path file = segmentFile(type.getProvider(), day.minusDays(back));
+            ChartSnapshot snapshot = Files.exists(file) ? findLast(type, file, at.toEpochMilli()) : null;
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    // The most recent snapshot recorded for a chart, however old; null when there is none on disk.
+    public ChartSnapshot latest(ChartType type) throws IOException {
+        for (Path file : segmentFilesNewestFirst(type.getProvider())) {
+            ChartSnapshot snapshot = findLast(type, file, Long.MAX_VALUE);
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    // Every recorded rank of one song between from and to, oldest first. chartName null = all charts of the provider.
+    public List<RankPointVO> songHistory(String provider, String chartName, String songNumber, Instant from, Instant to)
+            throws IOException {
+        byte[] needle = songNumber.getBytes(StandardCharsets.UTF_8);
+        List<RankPointVO> points = new ArrayList<>();
+        LocalDate last = to.atZone(KST).toLocalDate();
+        for (LocalDate day = from.atZone(KST).toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            Path file = segmentFile(provider, day);
+            if (!Files.exists(file)) {
+                continue;
+            }
+            HistorySegment segment = segment(file);
+            for (HistorySegment.Entry entry : segment.entries()) {
+                if (entry.getFetchedAt() < from.toEpochMilli() || entry.getFetchedAt() > to.toEpochMilli()) {
+                    continue;
+                }
+                if (chartName != null && !entry.getChart().equals(chartName)) {
+                    continue;
+                }
+                RankPointVO point = findSong(segment.read(entry), needle);
+                if (point != null) {
+                    point.setChart(provider + "/" + entry.getChart());
+                    point.setAt(Instant.ofEpochMilli(entry.getFetchedAt()).toString());
+                    points.add(point);
+                }
+            }
+        }
+        return points;
+    }
+
+    private ChartSnapshot findLast(ChartType type, Path file, long fetchedBy) throws IOException {
+        HistorySegment segment = segment(file);
+        List<HistorySegment.Entry> entries = segment.entries();
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            HistorySegment.Entry entry = entries.get(i);
+            if (entry.getChart().equals(type.getChartName()) && entry.getFetchedAt() <= fetchedBy) {
+                return decode(type, file, segment, entry);
+            }
+        }
+        return null;
+    }
+
+    // The stored rows of the most recent record for a chart, undecoded; null when there is none on disk.
+    private byte[] lastRecordedRows(ChartType type) throws IOException {
+        for (Path file : segmentFilesNewestFirst(type.getProvider())) {
+            HistorySegment segment = segment(file);
+            List<HistorySegment.Entry> entries = segment.entries();
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                if (entries.get(i).getChart().equals(type.getChartName())) {
+                    ByteBuffer body = segment.read(entries.get(i));
+                    byte[] rows = new byte[body.remaining()];
+                    body.get(rows);
+                    return rows;
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<Path> segmentFilesNewestFirst(String provider) throws IOException {
+        Path providerDir = dir.resolve(provider);
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(providerDir)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(providerDir, "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        // yyyy-MM-dd names sort by day.
+        files.sort(Comparator.reverseOrder());
+        return files;
+    }
+
+    private HistorySegment segment(Path file) throws IOException {
+        if (dayOf(file).isBefore(LocalDate.now(KST).minusDays(LOOKBACK_DAYS))) {
+            synchronized (pastSegments) {
+                HistorySegment segment = pastSegments.get(file);
+                if (segment == null) {
+                    segment = HistorySegment.open(file);
+                    pastSegments.put(file, segment);
+                }
+                return segment;
+            }
+        }
+        try {
+            return segments.computeIfAbsent(file, path -> {
+                try {
+                    return HistorySegment.open(path);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private Path segmentFile(String provider, LocalDate day) {
+        return dir.resolve(provider).resolve(day + SUFFIX);
+    }
+
+    private static LocalDate dayOf(Path file) {
+        String name = file.getFileName().toString();
+        return LocalDate.parse(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private void deleteExpired(String provider, LocalDate today) {
+        LocalDate oldest = today.minusDays(retention.toDays());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir.resolve(provider), "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (dayOf(file).isBefore(oldest)) {
+                    segments.remove(file);
+                    synchronized (pastSegments) {
+                        pastSegments.remove(file);
+                    }
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Failed to delete expired {} history", provider, ex);
+        }
+    }
+
+    private ChartSnapshot decode(ChartType type, Path file, HistorySegment segment, HistorySegment.Entry entry)
+            throws IOException {
+        String key = file + "@" + entry.getChart() + "@" + entry.getVersion();
+        synchronized (decoded) {
+            ChartSnapshot cached = decoded.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        ByteBuffer body = segment.read(entry);
+        int count = body.getInt();
+        List<ChartVO> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String songNumber = readString(body);
+            rows.add(ChartVO.builder()
+                    .songNumber(songNumber)
+                    .rank(readInt(body))
+                    .changedRank(readInt(body))
+                    .rankStatus(readString(body))
+                    .artistName(readString(body))
+                    .title(readString(body))
+                    .albumName(readString(body))
+                    .albumArt(readString(body))
+                    .build());
+        }
+        ChartSnapshot snapshot = new ChartSnapshot(
+                type, ChartRows.of(rows), Instant.ofEpochMilli(entry.getFetchedAt()), entry.getVersion(), objectMapper);
+        synchronized (decoded) {
+            decoded.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    private static RankPointVO findSong(ByteBuffer body, byte[] songNumber) {
+        int count = body.getInt();
+        for (int i = 0; i < count; i++) {
+            if (matches(body, songNumber)) {
+                return RankPointVO.builder()
+                        .rank(readInt(body))
+                        .changedRank(readInt(body))
+                        .rankStatus(readString(body))
+                        .build();
+            }
+            body.position(body.position() + 2 * Integer.BYTES);
+            for (int field = 0; field < 5; field++) {
+                skipString(body);
+            }
+        }
+        return null;
+    }
+
+    private static byte[] encode(ChartSnapshot snapshot, byte[] rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.length + 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, snapshot.getType().getChartName());
+        out.writeLong(snapshot.getFetchedAt().toEpochMilli());
+        out.writeLong(snapshot.getVersion());
+        out.write(rows);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeRows(List<ChartVO> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(rows.size());
+        for (ChartVO row : rows) {
+            writeString(out, row.getSongNumber());
+            out.writeInt(row.getRank() != null ? row.getRank() : NULL_INT);
+            out.writeInt(row.getChangedRank() != null ? row.getChangedRank() : NULL_INT);
+            writeString(out, row.getRankStatus());
+            writeString(out, row.getArtistName());
+            writeString(out, row.getTitle());
+            writeString(out, row.getAlbumName());
+            writeString(out, row.getAlbumArt());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // short length (-1 = null) + UTF-8
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("History field too long: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length > 0) {
+            in.position(in.position() + length);
+        }
+    }
+
+    private static Integer readInt(ByteBuffer in) {
+        int value = in.getInt();
+        return value != NULL_INT ? value : null;
+    }
+
+    // Compares a string field in place and leaves the buffer after it either way.
+    private static boolean matches(ByteBuffer in, byte[] expected) {
+        int length = in.getShort();
+        if (length < 0) {
+            return false;
+        }
+        int start = in.position();
+        in.position(start + length);
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (in.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
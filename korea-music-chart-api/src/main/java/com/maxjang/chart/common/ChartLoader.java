@@ -0,0 +1,14 @@
+package com.maxjang.chart.common;
+
+import java.util.List;
+
+/**
+ * Scrapes one chart from upstream. Called only from the refresh schedule, never on the request path.
+ *
+ * <p>Returning the same list instance as the previous load (see {@link ConditionalResult}) means the
+ * chart did not change: the cached snapshot and its artist index are kept as they are.
+ */
+@FunctionalInterface
+public interface ChartLoader {
+    List<ChartVO> load() throws Exception;
+}
@@ -0,0 +1,174 @@
+package com.maxjang.chart.common;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.support.CronSequenceGenerator;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * HTTP caching for chart endpoints. The ETag comes from the snapshot version (plus the artist
+ * filter), so a poll of an unchanged chart is answered 304 before any rows are copied or
+ * serialized, and max-age runs until the chart's next scheduled refresh.
+ *
+ * <p>Unfiltered charts are written straight from the bytes the snapshot serialized when it was
+ * built, gzip-compressed when the client accepts it.
+ *
+ * <p>Request headers are read through {@link WebRequest} on Spring MVC and {@link HttpHeaders} on
+ * the reactive stack; the responses are the same.
+ */
+public final class ChartResponses {
+
+    private static final TimeZone KST = TimeZone.getTimeZone("Asia/Seoul");
+    // Time a scheduled refresh usually needs to land after its cron fires.
+    private static final Duration REFRESH_GRACE = Duration.ofSeconds(30);
+    private static final Duration STALE_IF_ERROR = Duration.ofDays(1);
+
+    private ChartResponses() {
+    }
+
+    public static ResponseEntity<?> chart(ChartSnapshot snapshot, String artistName, WebRequest request) {
+        return chart(snapshot, artistName, request::getHeader);
+    }
+
+    public static ResponseEntity<?> chart(ChartSnapshot snapshot, String artistName, HttpHeaders requestHeaders) {
+        return chart(snapshot, artistName, requestHeaders::getFirst);
+    }
+
+    // For endpoints that have always returned a bare JSON array (/bugs/chart/{artistName})
+    public static ResponseEntity<List<ChartVO>> chartList(ChartSnapshot snapshot, String artistName, WebRequest request) {
+        return respond(snapshot, artistName, request::getHeader, Function.identity());
+    }
+
+    public static ResponseEntity<List<ChartVO>> chartList(ChartSnapshot snapshot, String artistName, HttpHeaders requestHeaders) {
+        return respond(snapshot, artistName, requestHeaders::getFirst, Function.identity());
+    }
+
+    private static ResponseEntity<?> chart(ChartSnapshot snapshot, String artistName, Function<String, String> header) {
+        if (artistName == null || artistName.trim().isEmpty()) {
+            return encoded(snapshot, header);
+        }
+        return respond(snapshot, artistName, header, ResponseFormat::new);
+    }
+
+    private static <T> ResponseEntity<T> respond(
+            ChartSnapshot snapshot, String artistName, Function<String, String> header, Function<List<ChartVO>, T> body) {
+        String etag = etag(snapshot, artistName);
+        CacheControl cacheControl = cacheControl(snapshot);
+
+        if (matches(header.apply(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(snapshot.getModifiedAt().toEpochMilli())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(snapshot.getModifiedAt().toEpochMilli())
+                .cacheControl(cacheControl)
+                .body(body.apply(snapshot.filterByArtist(artistName)));
+    }
+
+    private static ResponseEntity<byte[]> encoded(ChartSnapshot snapshot, Function<String, String> header) {
+        boolean gzip = acceptsGzip(header.apply(HttpHeaders.ACCEPT_ENCODING));
+        // Each content-coding is its own representation and needs its own strong ETag.
+        String etag = gzip ? "\"" + snapshot.getVersion() + "-gz\"" : etag(snapshot, null);
+        CacheControl cacheControl = cacheControl(snapshot);
+
+        if (matches(header.apply(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(snapshot.getModifiedAt().toEpochMilli())
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        EncodedChart encoded = snapshot.getEncoded();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(snapshot.getModifiedAt().toEpochMilli())
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip());
+        }
+        return response.body(encoded.identity());
+    }
+
+    static String etag(ChartSnapshot snapshot, String artistName) {
+        if (artistName == null || artistName.trim().isEmpty()) {
+            return "\"" + snapshot.getVersion() + "\"";
+        }
+        return "\"" + snapshot.getVersion() + "-" + Integer.toHexString(artistName.trim().hashCode()) + "\"";
+    }
+
+    // Fresh until the refresh scheduled after this snapshot; revalidate right away if that is overdue.
+    static CacheControl cacheControl(ChartSnapshot snapshot) {
+        ChartType type = snapshot.getType();
+        Date nextRefresh = new CronSequenceGenerator(type.getRefreshCron(), KST).next(Date.from(snapshot.getFetchedAt()));
+        long maxAge = Duration.between(Instant.now(), nextRefresh.toInstant().plus(REFRESH_GRACE)).getSeconds();
+
+        return CacheControl.maxAge(Math.max(0, maxAge), TimeUnit.SECONDS)
+                .cachePublic()
+                .staleWhileRevalidate(type.getRefreshInterval().getSeconds(), TimeUnit.SECONDS)
+                .staleIfError(STALE_IF_ERROR.getSeconds(), TimeUnit.SECONDS);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            String coding = parts[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException ex) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
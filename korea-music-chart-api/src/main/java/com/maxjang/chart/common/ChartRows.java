@@ -0,0 +1,137 @@
+package com.maxjang.chart.common;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact, immutable rows of one chart, stored column by column: primitive ranks, a byte code for the
+ * rank status and interned strings. An artist, title or album that appears on several charts (or in
+ * consecutive refreshes of one chart) is held once, and album-art URLs share their host/path prefix.
+ *
+ * <p>{@link ChartVO} stays the serialization view: {@link #get(int)} builds one on demand, so ChartVOs
+ * only live as long as the response that writes them. Loaders wrap their parse result with
+ * {@link #of(List)} so the conditional-request cache and the snapshot retain this form, not ChartVOs.
+ */
+public final class ChartRows extends AbstractList<ChartVO> implements RandomAccess {
+    // Stands in for a null rank / changedRank.
+    private static final int NONE = Integer.MIN_VALUE;
+    // Index = byte code; 0 is a null rankStatus.
+    private static final String[] RANK_STATUSES = {null, "static", "up", "down", "new"};
+
+    private final int[] ranks;
+    private final int[] changedRanks;
+    private final byte[] rankStatuses;
+    private final String[] artistNames;
+    private final String[] titles;
+    private final String[] albumNames;
+    private final String[] albumArtPrefixes;
+    private final String[] albumArtSuffixes;
+    private final String[] songNumbers;
+
+    private ChartRows(int size) {
+        this.ranks = new int[size];
+        this.changedRanks = new int[size];
+        this.rankStatuses = new byte[size];
+        this.artistNames = new String[size];
+        this.titles = new String[size];
+        this.albumNames = new String[size];
+        this.albumArtPrefixes = new String[size];
+        this.albumArtSuffixes = new String[size];
+        this.songNumbers = new String[size];
+    }
+
+    public static ChartRows of(List<ChartVO> rows) {
+        if (rows instanceof ChartRows) {
+            return (ChartRows) rows;
+        }
+
+        ChartRows compact = new ChartRows(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            ChartVO row = rows.get(i);
+            compact.ranks[i] = row.getRank() != null ? row.getRank() : NONE;
+            compact.changedRanks[i] = row.getChangedRank() != null ? row.getChangedRank() : NONE;
+            compact.rankStatuses[i] = encodeRankStatus(row.getRankStatus());
+            compact.artistNames[i] = intern(row.getArtistName());
+            compact.titles[i] = intern(row.getTitle());
+            compact.albumNames[i] = intern(row.getAlbumName());
+            compact.songNumbers[i] = intern(row.getSongNumber());
+
+            String albumArt = row.getAlbumArt();
+            if (albumArt != null) {
+                int split = albumArtPrefixEnd(albumArt);
+                compact.albumArtPrefixes[i] = albumArt.substring(0, split).intern();
+                compact.albumArtSuffixes[i] = albumArt.substring(split).intern();
+            }
+        }
+        return compact;
+    }
+
+    @Override
+    public ChartVO get(int index) {
+        return ChartVO.builder()
+                .rank(ranks[index] != NONE ? ranks[index] : null)
+                .rankStatus(RANK_STATUSES[rankStatuses[index]])
+                .changedRank(changedRanks[index] != NONE ? changedRanks[index] : null)
+                .artistName(artistNames[index])
+                .title(titles[index])
+                .albumName(albumNames[index])
+                .albumArt(getAlbumArt(index))
+                .songNumber(songNumbers[index])
+                .build();
+    }
+
+    @Override
+    public int size() {
+        return ranks.length;
+    }
+
+    // Lets the artist index and substring scans read the column without materializing rows.
+    public String getArtistName(int index) {
+        return artistNames[index];
+    }
+
+    private String getAlbumArt(int index) {
+        String prefix = albumArtPrefixes[index];
+        return prefix != null ? prefix.concat(albumArtSuffixes[index]) : null;
+    }
+
+    private static byte encodeRankStatus(String rankStatus) {
+        for (byte code = 1; code < RANK_STATUSES.length; code++) {
+            if (RANK_STATUSES[code].equals(rankStatus)) {
+                return code;
+            }
+        }
+        if (rankStatus != null) {
+            throw new IllegalArgumentException("Unknown rankStatus: " + rankStatus);
+        }
+        return 0;
+    }
+
+    private static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+
+    // Everything before the first path segment holding a digit, e.g. "https://image.bugsm.co.kr/album/images/";
+    // that part is the same for every album of a provider, the rest is the album's own id/size.
+    private static int albumArtPrefixEnd(String url) {
+        int scheme = url.indexOf("://");
+        int path = url.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+        if (path < 0) {
+            return url.length();
+        }
+        int end = path;
+        for (int i = path; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                break;
+            }
+            if (c == '/') {
+                end = i + 1;
+            } else if (Character.isDigit(c)) {
+                break;
+            }
+        }
+        return end;
+    }
+}
@@ -0,0 +1,131 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable result of one chart refresh. Replaced as a whole, never mutated, so the artist index
+ * and the pre-serialized response built here always match the rows.
+ */
+public final class ChartSnapshot {
+    // Bound on remembered queries per snapshot; arbitrary path input must not grow it forever.
+    private static final int MAX_SCANNED_QUERIES = 256;
+
+    private final ChartType type;
+    // Only for the identity check; weak so a plain List handed in by a loader isn't kept alive here.
+    private final WeakReference<List<ChartVO>> source;
+    private final ChartRows rows;
+    private final Instant fetchedAt;
+    private final Instant modifiedAt;
+    private final long version;
+    private final ArtistIndex artistIndex;
+    private final EncodedChart encoded;
+    private final Map<String, int[]> scannedQueries;
+
+    public ChartSnapshot(ChartType type, List<ChartVO> rows, Instant fetchedAt, long version, ObjectMapper objectMapper) {
+        this.type = type;
+        this.source = new WeakReference<>(rows);
+        this.rows = ChartRows.of(rows);
+        this.fetchedAt = fetchedAt;
+        this.modifiedAt = fetchedAt;
+        this.version = version;
+        this.artistIndex = ArtistIndex.build(this.rows);
+        this.encoded = EncodedChart.encode(new ResponseFormat<>(this.rows), objectMapper);
+        this.scannedQueries = new ConcurrentHashMap<>();
+    }
+
+    private ChartSnapshot(ChartSnapshot unchanged, Instant fetchedAt) {
+        this.type = unchanged.type;
+        this.source = unchanged.source;
+        this.rows = unchanged.rows;
+        this.fetchedAt = fetchedAt;
+        this.modifiedAt = unchanged.modifiedAt;
+        this.version = unchanged.version;
+        this.artistIndex = unchanged.artistIndex;
+        this.encoded = unchanged.encoded;
+        this.scannedQueries = unchanged.scannedQueries;
+    }
+
+    // Upstream confirmed nothing changed: same rows, index and version, new fetch time.
+    ChartSnapshot confirmedAt(Instant fetchedAt) {
+        return new ChartSnapshot(this, fetchedAt);
+    }
+
+    // True when a loader handed back the very list this snapshot was built from. A loader can only do
+    // that while it still holds the list, so the weak reference is alive whenever the answer matters.
+    boolean isBuiltFrom(List<ChartVO> loaded) {
+        return source.get() == loaded;
+    }
+
+    public ChartType getType() {
+        return type;
+    }
+
+    public List<ChartVO> getRows() {
+        return rows;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    // When the rows last changed; unlike fetchedAt it does not move when upstream reports no change.
+    public Instant getModifiedAt() {
+        return modifiedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    EncodedChart getEncoded() {
+        return encoded;
+    }
+
+    public Duration getAge() {
+        return Duration.between(fetchedAt, Instant.now());
+    }
+
+    public List<ChartVO> filterByArtist(String artistName) {
+        if (artistName == null || artistName.trim().isEmpty()) {
+            return rows;
+        }
+
+        int[] positions = scannedQueries.get(artistName);
+        if (positions == null) {
+            positions = scan(artistName.trim());
+            if (scannedQueries.size() < MAX_SCANNED_QUERIES) {
+                scannedQueries.put(artistName, positions);
+            }
+        }
+
+        List<ChartVO> filtered = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            filtered.add(rows.get(position));
+        }
+        return filtered;
+    }
+
+    // Case-sensitive substring match ("EX" finds "EXO"), checked only on the rows the index leaves.
+    private int[] scan(String needle) {
+        int[] candidates = artistIndex.candidates(needle);
+        int size = candidates != null ? candidates.length : rows.size();
+        int[] positions = new int[size];
+        int count = 0;
+        for (int c = 0; c < size; c++) {
+            int i = candidates != null ? candidates[c] : c;
+            if (ArtistIndex.matches(rows.getArtistName(i), needle)) {
+                positions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+}
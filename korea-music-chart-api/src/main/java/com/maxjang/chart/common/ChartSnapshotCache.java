@@ -0,0 +1,397 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory chart snapshots, one per {@link ChartType}. Each provider service registers a loader for
+ * its charts; the loader then runs on the chart's own cron schedule and requests are answered from
+ * the last snapshot without touching upstream.
+ *
+ * <p>Refreshes are single-flight: at most one load per chart runs at a time and every caller that
+ * needs it (schedule, stale read, cold start) shares the same future. A stale snapshot is served
+ * immediately while the refresh runs in the background, and a failed refresh keeps the old one.
+ * A load that outlives {@code chart.refresh.timeout} is abandoned (its task interrupted) and fails
+ * like any other, so one hung upstream cannot hold the chart's refreshes or a scheduler thread.
+ *
+ * <p>Every new snapshot is also appended to the {@link ChartHistoryStore}, which answers {@code ?at=}.
+ * After a restart each chart starts from its last recorded snapshot, so the first requests are served
+ * from memory while {@link #loadAll()} brings them current instead of all scraping at once.
+ *
+ * <p>Meters, tagged by provider and chart: {@code chart.refresh} (load time by outcome),
+ * {@code chart.refresh.rows}, {@code chart.cache.requests} (hit, stale, miss) and the gauges
+ * {@code chart.snapshot.age} and {@code chart.snapshot.rows}.
+ */
+@Component
+public class ChartSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChartSnapshotCache.class);
+    private static final TimeZone KST = TimeZone.getTimeZone("Asia/Seoul");
+    private static final ZoneId KST_ZONE = KST.toZoneId();
+    // Don't let every stale read retry a failing upstream.
+    private static final Duration RETRY_BACKOFF = Duration.ofMinutes(1);
+
+    private final TaskScheduler taskScheduler;
+    private final ObjectMapper objectMapper;
+    private final ChartHistoryStore historyStore;
+    private final MeterRegistry meterRegistry;
+    private final Duration loadTimeout;
+    private final Map<ChartType, Meters> meters = new ConcurrentHashMap<>();
+    private final Map<ChartType, ChartLoader> loaders = new ConcurrentHashMap<>();
+    private final Map<ChartType, ChartSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<ChartType, CompletableFuture<ChartSnapshot>> inFlight = new ConcurrentHashMap<>();
+    private final Map<ChartType, Failure> failures = new ConcurrentHashMap<>();
+    private final List<ChartSnapshotListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+
+    @Autowired
+    public ChartSnapshotCache(
+            TaskScheduler taskScheduler,
+            ObjectMapper objectMapper,
+            ChartHistoryStore historyStore,
+            MeterRegistry meterRegistry,
+            @Value("${chart.refresh.timeout:PT2M}") Duration loadTimeout
+    ) {
+        this.taskScheduler = taskScheduler;
+        this.objectMapper = objectMapper;
+        this.historyStore = historyStore;
+        this.meterRegistry = meterRegistry;
+        this.loadTimeout = loadTimeout;
+    }
+
+    public void register(ChartType type, ChartLoader loader) {
+        // Before the loader, so no refresh can run without its meters.
+        meters.computeIfAbsent(type, Meters::new);
+        if (loaders.putIfAbsent(type, loader) != null) {
+            throw new IllegalStateException("Loader already registered for " + type.getId());
+        }
+        warmStart(type);
+        taskScheduler.schedule(() -> refreshQuietly(type), new CronTrigger(type.getRefreshCron(), KST));
+    }
+
+    public void addListener(ChartSnapshotListener listener) {
+        listeners.add(listener);
+    }
+
+    private void warmStart(ChartType type) {
+        try {
+            ChartSnapshot recorded = historyStore.latest(type);
+            if (recorded != null) {
+                snapshots.putIfAbsent(type, recorded);
+                logger.info("Warm-started {} chart from snapshot fetched at {}", type.getId(), recorded.getFetchedAt());
+            }
+        } catch (Exception ex) {
+            logger.warn("Failed to load the recorded {} chart", type.getId(), ex);
+        }
+    }
+
+    // Fill every chart once at boot so the first visitors don't pay for the scrape.
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        for (ChartType type : loaders.keySet()) {
+            refreshQuietly(type);
+        }
+    }
+
+    public ChartSnapshot get(ChartType type) throws Exception {
+        ChartSnapshot snapshot = cached(type);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        // Only reachable before the first load has finished; wait on the shared refresh.
+        try {
+            return refreshAsync(type).get(loadTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            throw timedOut(type);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            throw cause instanceof Exception ? (Exception) cause : ex;
+        }
+    }
+
+    // get(type) without blocking: already complete unless the chart has never been loaded.
+    public CompletableFuture<ChartSnapshot> getAsync(ChartType type) {
+        ChartSnapshot snapshot = cached(type);
+        return snapshot != null ? CompletableFuture.completedFuture(snapshot) : refreshAsync(type);
+    }
+
+    // The snapshot to serve, refreshing it in the background when stale; null before the first load.
+    private ChartSnapshot cached(ChartType type) {
+        ChartSnapshot snapshot = snapshots.get(type);
+        Meters meter = meters.get(type);
+        if (snapshot == null) {
+            if (meter != null) {
+                meter.miss.increment();
+            }
+            return null;
+        }
+
+        if (isStale(snapshot)) {
+            meter.stale.increment();
+            if (!isBackingOff(type)) {
+                refreshQuietly(type);
+            }
+        } else {
+            meter.hit.increment();
+        }
+        return snapshot;
+    }
+
+    // at: a KST time like 2026-10-18T14:00 (or with an explicit offset); blank = the live snapshot.
+    public ChartSnapshot get(ChartType type, String at) throws Exception {
+        if (at == null || at.trim().isEmpty()) {
+            return get(type);
+        }
+
+        ChartSnapshot snapshot = historyStore.snapshotAt(type, parseTime(at.trim()));
+        if (snapshot == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No " + type.getId() + " chart recorded at " + at);
+        }
+        return snapshot;
+    }
+
+    public static Instant parseTime(String value) {
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException ex) {
+            try {
+                return LocalDateTime.parse(value).atZone(KST_ZONE).toInstant();
+            } catch (DateTimeParseException invalid) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid time: " + value);
+            }
+        }
+    }
+
+    public CompletableFuture<ChartSnapshot> refreshAsync(ChartType type) {
+        ChartLoader loader = loaders.get(type);
+        if (loader == null) {
+            throw new IllegalStateException("No loader registered for " + type.getId());
+        }
+
+        CompletableFuture<ChartSnapshot> running = inFlight.get(type);
+        if (running != null) {
+            return running;
+        }
+        CompletableFuture<ChartSnapshot> future = new CompletableFuture<>();
+        running = inFlight.putIfAbsent(type, future);
+        if (running != null) {
+            return running;
+        }
+
+        Meters meter = meters.get(type);
+        ScheduledFuture<?> task = taskScheduler.schedule(() -> {
+            long start = System.nanoTime();
+            try {
+                List<ChartVO> rows = loader.load();
+                ChartSnapshot previous = snapshots.get(type);
+                boolean unchanged = previous != null && previous.isBuiltFrom(rows);
+                ChartSnapshot snapshot = unchanged
+                        ? previous.confirmedAt(Instant.now())
+                        : new ChartSnapshot(type, rows, Instant.now(), versions.incrementAndGet(), objectMapper);
+                if (future.isDone()) {
+                    return; // timed out; a newer load may already be running
+                }
+                // Stored before completing, so whoever waited on the load also finds it in the cache.
+                snapshots.put(type, snapshot);
+                failures.remove(type);
+                // Unregister before completing so a refresh requested afterwards starts a new load.
+                inFlight.remove(type, future);
+                future.complete(snapshot);
+                (unchanged ? meter.unchanged : meter.changed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                meter.rows.record(rows.size());
+                if (!unchanged) {
+                    record(snapshot);
+                    notifyListeners(previous, snapshot);
+                }
+            } catch (Throwable ex) {
+                inFlight.remove(type, future);
+                if (future.completeExceptionally(ex)) {
+                    meter.failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    failures.put(type, new Failure(Instant.now(), ex));
+                }
+            }
+        }, new Date());
+
+        // Fired from the JDK's delay thread, so it still runs when every scheduler thread is stuck.
+        CompletableFuture.delayedExecutor(loadTimeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            UpstreamUnavailableException timeout = timedOut(type);
+            inFlight.remove(type, future);
+            if (future.completeExceptionally(timeout)) {
+                task.cancel(true);
+                meter.failed.record(loadTimeout);
+                failures.put(type, new Failure(Instant.now(), timeout));
+            }
+        });
+        return future;
+    }
+
+    private UpstreamUnavailableException timedOut(ChartType type) {
+        return new UpstreamUnavailableException(type.getProvider(), type.getId() + " chart load timed out after " + loadTimeout);
+    }
+
+    // Ready once every chart has a snapshot to serve. A chart whose first load failed keeps the
+    // instance out of service until a scheduled refresh or a read loads it.
+    public boolean isReady() {
+        for (ChartType type : loaders.keySet()) {
+            if (!snapshots.containsKey(type)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<ChartStatusVO> getStatus() {
+        List<ChartStatusVO> statuses = new ArrayList<>();
+        for (ChartType type : ChartType.values()) {
+            if (!loaders.containsKey(type)) {
+                continue;
+            }
+            ChartSnapshot snapshot = snapshots.get(type);
+            Failure failure = failures.get(type);
+            statuses.add(ChartStatusVO.builder()
+                    .chart(type.getId())
+                    .version(snapshot != null ? snapshot.getVersion() : null)
+                    .rows(snapshot != null ? snapshot.getRows().size() : null)
+                    .fetchedAt(snapshot != null ? snapshot.getFetchedAt().toString() : null)
+                    .ageSeconds(snapshot != null ? snapshot.getAge().getSeconds() : null)
+                    .stale(snapshot == null || isStale(snapshot))
+                    .refreshing(inFlight.containsKey(type))
+                    .lastFailureAt(failure != null ? failure.at.toString() : null)
+                    .lastError(failure != null ? String.valueOf(failure.error) : null)
+                    .build());
+        }
+        return statuses;
+    }
+
+    private boolean isStale(ChartSnapshot snapshot) {
+        return snapshot.getAge().compareTo(snapshot.getType().getRefreshInterval()) >= 0;
+    }
+
+    private boolean isBackingOff(ChartType type) {
+        Failure failure = failures.get(type);
+        return failure != null && Duration.between(failure.at, Instant.now()).compareTo(RETRY_BACKOFF) < 0;
+    }
+
+    // History is best effort: a full disk must not fail the refresh that already serves the new chart.
+    private void record(ChartSnapshot snapshot) {
+        try {
+            historyStore.append(snapshot);
+        } catch (Exception ex) {
+            logger.warn("Failed to record {} chart history", snapshot.getType().getId(), ex);
+        }
+    }
+
+    private void notifyListeners(ChartSnapshot previous, ChartSnapshot snapshot) {
+        for (ChartSnapshotListener listener : listeners) {
+            try {
+                listener.onSnapshot(previous, snapshot);
+            } catch (RuntimeException ex) {
+                logger.warn("Snapshot listener failed for {} chart", snapshot.getType().getId(), ex);
+            }
+        }
+    }
+
+    private void refreshQuietly(ChartType type) {
+        refreshAsync(type).whenComplete((snapshot, ex) -> {
+            if (ex != null) {
+                logger.warn("Failed to refresh {} chart cache", type.getId(), ex);
+            }
+        });
+    }
+
+    private final class Meters {
+        private final Counter hit;
+        private final Counter stale;
+        private final Counter miss;
+        private final Timer changed;
+        private final Timer unchanged;
+        private final Timer failed;
+        private final DistributionSummary rows;
+
+        private Meters(ChartType type) {
+            Tags tags = Tags.of("provider", type.getProvider(), "chart", type.getChartName());
+            hit = meterRegistry.counter("chart.cache.requests", tags.and("result", "hit"));
+            stale = meterRegistry.counter("chart.cache.requests", tags.and("result", "stale"));
+            miss = meterRegistry.counter("chart.cache.requests", tags.and("result", "miss"));
+            changed = refreshTimer(tags, "changed");
+            unchanged = refreshTimer(tags, "unchanged");
+            failed = refreshTimer(tags, "failed");
+            rows = DistributionSummary.builder("chart.refresh.rows")
+                    .description("Rows produced by a chart load")
+                    .tags(tags)
+                    .register(meterRegistry);
+            // Both -1 until the first snapshot exists
+            Gauge.builder("chart.snapshot.age", snapshots, map -> ageSeconds(map.get(type)))
+                    .description("Seconds since the served snapshot was fetched")
+                    .baseUnit("seconds")
+                    .tags(tags)
+                    .register(meterRegistry);
+            Gauge.builder("chart.snapshot.rows", snapshots, map -> rowCount(map.get(type)))
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        private Timer refreshTimer(Tags tags, String outcome) {
+            return Timer.builder("chart.refresh")
+                    .description("Upstream fetch and parse of one chart")
+                    .tags(tags.and("outcome", outcome))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    private static double ageSeconds(ChartSnapshot snapshot) {
+        return snapshot != null ? snapshot.getAge().toMillis() / 1000.0 : -1;
+    }
+
+    private static double rowCount(ChartSnapshot snapshot) {
+        return snapshot != null ? snapshot.getRows().size() : -1;
+    }
+
+    private static final class Failure {
+        private final Instant at;
+        private final Throwable error;
+
+        private Failure(Instant at, Throwable error) {
+            this.at = at;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.maxjang.chart.common;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports {@code chartSnapshot} OUT_OF_SERVICE until every chart has a snapshot loaded, either from
+ * disk at boot or from a refresh. A chart whose first load failed keeps it there until a later
+ * refresh succeeds. Exposed as /actuator/health/readiness (application.yml).
+ */
+@Component
+public class ChartSnapshotHealthIndicator implements HealthIndicator {
+
+    private final ChartSnapshotCache chartSnapshotCache;
+
+    @Autowired
+    public ChartSnapshotHealthIndicator(ChartSnapshotCache chartSnapshotCache) {
+        this.chartSnapshotCache = chartSnapshotCache;
+    }
+
+    @Override
+    public Health health() {
+        long loaded = chartSnapshotCache.getStatus().stream().filter(status -> status.getVersion() != null).count();
+        Health.Builder health = chartSnapshotCache.isReady() ? Health.up() : Health.outOfService();
+        return health.withDetail("loaded", loaded).build();
+    }
+}
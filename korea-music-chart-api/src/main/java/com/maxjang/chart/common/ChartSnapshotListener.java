@@ -0,0 +1,10 @@
+package com.maxjang.chart.common;
+
+/**
+ * Told about every refresh that produced a new snapshot; not called when upstream only confirmed the
+ * old one. previous is null for a chart's first snapshot. Runs on the refresh thread, so keep it short.
+ */
+@FunctionalInterface
+public interface ChartSnapshotListener {
+    void onSnapshot(ChartSnapshot previous, ChartSnapshot snapshot);
+}
@@ -0,0 +1,20 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChartStatusVO {
+    private String chart; // e.g. melon/top100
+    private Long version;
+    private Integer rows;
+    private String fetchedAt;
+    private Long ageSeconds;
+    private Boolean stale;
+    private Boolean refreshing;
+    private String lastFailureAt;
+    private String lastError;
+}
@@ -0,0 +1,86 @@
+package com.maxjang.chart.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Every chart we serve from memory, with the schedule its snapshot is refreshed on.
+ * Cron expressions are evaluated in KST, a few minutes after each provider publishes.
+ */
+public enum ChartType {
+    MELON_TOP100("melon", "top100", "0 2 * * * *", Duration.ofHours(1)),
+    MELON_HOT100_D100("melon", "hot100-d100", "0 3 * * * *", Duration.ofHours(1)),
+    MELON_HOT100_D30("melon", "hot100-d30", "0 3 * * * *", Duration.ofHours(1)),
+    GENIE_TOP200("genie", "top200", "0 2 * * * *", Duration.ofHours(1)),
+    BUGS_TOP100("bugs", "top100", "0 2 * * * *", Duration.ofHours(1)),
+    FLO_TOP100("flo", "top100", "0 0 * * * *", Duration.ofHours(1)),
+    VIBE_TOP100("vibe", "top100", "0 5 * * * *", Duration.ofHours(1)),
+    VIBE_TODAY_TOP300("vibe", "today-top300", "0 5 * * * *", Duration.ofHours(1));
+
+    private final String provider;
+    private final String chartName;
+    private final String refreshCron;
+    private final Duration refreshInterval;
+
+    ChartType(String provider, String chartName, String refreshCron, Duration refreshInterval) {
+        this.provider = provider;
+        this.chartName = chartName;
+        this.refreshCron = refreshCron;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getChartName() {
+        return chartName;
+    }
+
+    // e.g. "melon/hot100-d30"
+    public String getId() {
+        return provider + "/" + chartName;
+    }
+
+    public String getRefreshCron() {
+        return refreshCron;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    // providers: comma separated providers (melon) or chart ids (melon/hot100-d30); every chart when blank
+    public static List<ChartType> resolve(String providers) {
+        if (providers == null || providers.trim().isEmpty()) {
+            return Arrays.asList(values());
+        }
+
+        List<ChartType> types = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        for (String token : providers.split(",")) {
+            String name = token.trim().toLowerCase();
+            boolean known = false;
+            for (ChartType type : values()) {
+                if (type.getProvider().equals(name) || type.getId().equals(name)) {
+                    known = true;
+                    if (!types.contains(type)) {
+                        types.add(type);
+                    }
+                }
+            }
+            if (!known && !name.isEmpty()) {
+                unknown.add(token.trim());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown providers: " + String.join(", ", unknown));
+        }
+        return types;
+    }
+}
@@ -0,0 +1,23 @@
+package com.maxjang.chart.common;
+
+/**
+ * Outcome of {@link UpstreamRequest#getIfModified}. When upstream reports no change the previously
+ * parsed value is handed back as the same instance.
+ */
+public final class ConditionalResult<T> {
+    private final T value;
+    private final boolean modified;
+
+    ConditionalResult(T value, boolean modified) {
+        this.value = value;
+        this.modified = modified;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public boolean isModified() {
+        return modified;
+    }
+}
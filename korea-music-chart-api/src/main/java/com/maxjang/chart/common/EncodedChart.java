@@ -0,0 +1,47 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The unfiltered {@code {"data": [...]}} response of one snapshot, serialized once when the snapshot
+ * is built and served as-is to every request. Brotli is not offered: there is no pure-Java encoder,
+ * and gzip already gets the JSON to a fraction of its size.
+ */
+final class EncodedChart {
+    private final byte[] identity;
+    private final byte[] gzip;
+
+    private EncodedChart(byte[] identity, byte[] gzip) {
+        this.identity = identity;
+        this.gzip = gzip;
+    }
+
+    static EncodedChart encode(Object body, ObjectMapper objectMapper) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(identity);
+            }
+            return new EncodedChart(identity, compressed.toByteArray());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize chart snapshot", ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    byte[] identity() {
+        return identity;
+    }
+
+    byte[] gzip() {
+        return gzip;
+    }
+}
@@ -0,0 +1,59 @@
+package com.maxjang.chart.common;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/history")
+public class HistoryController {
+
+    private static final Duration DEFAULT_WINDOW = Duration.ofDays(1);
+    private static final Duration MAX_WINDOW = Duration.ofDays(31);
+
+    private final ChartHistoryStore chartHistoryStore;
+
+    @Autowired
+    public HistoryController(ChartHistoryStore chartHistoryStore) {
+        this.chartHistoryStore = chartHistoryStore;
+    }
+
+    // Rank time series of one song; chart: e.g. hot100-d30 (all charts of the provider when omitted),
+    // from/to: KST times like 2026-10-18T03:00 (last 24 hours when omitted)
+    @GetMapping("/{provider}/{songNumber}")
+    public ResponseFormat<RankPointVO> getSongHistory(
+            @PathVariable String provider,
+            @PathVariable String songNumber,
+            @RequestParam(required = false) String chart,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to
+    ) throws Exception {
+        if (!isKnownChart(provider, chart)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown chart: " + provider + (chart != null ? "/" + chart : ""));
+        }
+
+        Instant end = to != null ? ChartSnapshotCache.parseTime(to) : Instant.now();
+        Instant start = from != null ? ChartSnapshotCache.parseTime(from) : end.minus(DEFAULT_WINDOW);
+        if (start.isAfter(end) || Duration.between(start, end).compareTo(MAX_WINDOW) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from/to must span at most " + MAX_WINDOW.toDays() + " days");
+        }
+        return new ResponseFormat<>(chartHistoryStore.songHistory(provider, chart, songNumber, start, end));
+    }
+
+    private boolean isKnownChart(String provider, String chart) {
+        for (ChartType type : ChartType.values()) {
+            if (type.getProvider().equals(provider) && (chart == null || type.getChartName().equals(chart))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
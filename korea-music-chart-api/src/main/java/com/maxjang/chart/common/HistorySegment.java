@@ -0,0 +1,146 @@
+package com.maxjang.chart.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One append-only history file: every snapshot of one provider's charts on one KST day. Records are
+ * written with plain appends and read through a read-only memory map, re-mapped once the file has
+ * grown past it. No file handle is held between calls, but the mapping lives as long as the
+ * segment object does; ChartHistoryStore keeps only recent days and a few older ones open.
+ *
+ * <p>Record: {@code int length}, then a body starting with the chart name (short length + UTF-8),
+ * fetchedAt (epoch millis) and version; the rows that follow are ChartHistoryStore's business.
+ * A torn record left by a crash mid-append is cut off when the file is opened.
+ */
+final class HistorySegment {
+
+    private final Path file;
+    private volatile List<Entry> entries;
+    private volatile MappedByteBuffer mapped;
+    private long size;
+
+    private HistorySegment(Path file, List<Entry> entries, long size) {
+        this.file = file;
+        this.entries = entries;
+        this.size = size;
+    }
+
+    static HistorySegment open(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new HistorySegment(file, Collections.emptyList(), 0);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        long end = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            while (end + Integer.BYTES <= fileSize) {
+                int length = buffer.getInt((int) end);
+                long bodyStart = end + Integer.BYTES;
+                if (length <= 0 || bodyStart + length > fileSize) {
+                    break;
+                }
+                entries.add(readEntry(buffer, (int) bodyStart, length));
+                end = bodyStart + length;
+            }
+            if (end < fileSize) {
+                channel.truncate(end);
+            }
+        }
+        return new HistorySegment(file, Collections.unmodifiableList(entries), end);
+    }
+
+    // Record bodies in append order; the list is replaced, never mutated, so readers can hold on to it.
+    List<Entry> entries() {
+        return entries;
+    }
+
+    synchronized void append(byte[] body) throws IOException {
+        Files.createDirectories(file.getParent());
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + body.length);
+        record.putInt(body.length).put(body).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.position(size);
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        }
+
+        Entry entry = readEntry(ByteBuffer.wrap(body), 0, body.length);
+        List<Entry> grown = new ArrayList<>(entries);
+        grown.add(new Entry(size + Integer.BYTES, body.length, entry.chart, entry.fetchedAt, entry.version));
+        size += record.capacity();
+        entries = Collections.unmodifiableList(grown);
+    }
+
+    // The record body, positioned just after the header read into the entry.
+    ByteBuffer read(Entry entry) throws IOException {
+        MappedByteBuffer buffer = mapped;
+        if (buffer == null || buffer.capacity() < entry.offset + entry.length) {
+            buffer = remap();
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.limit((int) (entry.offset + entry.length)).position((int) entry.offset + entry.headerLength);
+        return body.slice();
+    }
+
+    private synchronized MappedByteBuffer remap() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return mapped;
+    }
+
+    private static Entry readEntry(ByteBuffer buffer, int start, int length) {
+        int nameLength = buffer.getShort(start);
+        byte[] name = new byte[nameLength];
+        for (int i = 0; i < nameLength; i++) {
+            name[i] = buffer.get(start + Short.BYTES + i);
+        }
+        int position = start + Short.BYTES + nameLength;
+        long fetchedAt = buffer.getLong(position);
+        long version = buffer.getLong(position + Long.BYTES);
+        return new Entry(start, length, new String(name, StandardCharsets.UTF_8).intern(), fetchedAt, version);
+    }
+
+    static final class Entry {
+        private final long offset;
+        private final int length;
+        private final int headerLength;
+        private final String chart;
+        private final long fetchedAt;
+        private final long version;
+
+        private Entry(long offset, int length, String chart, long fetchedAt, long version) {
+            this.offset = offset;
+            this.length = length;
+            this.headerLength = Short.BYTES + chart.getBytes(StandardCharsets.UTF_8).length + 2 * Long.BYTES;
+            this.chart = chart;
+            this.fetchedAt = fetchedAt;
+            this.version = version;
+        }
+
+        String getChart() {
+            return chart;
+        }
+
+        long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        long getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.maxjang.chart.common;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Results of the live lookups, keyed by provider and normalized query: artist album searches for a
+ * few hours, album track lists (which practically never change) for days. Both caches are bounded by
+ * the approximate memory of their entries and evict by Caffeine's frequency-aware policy, so one
+ * artist's comeback spike cannot push out everything else.
+ *
+ * <p>A miss stores the fetch's future itself, so concurrent requests for the same key share one
+ * upstream call; a failed fetch is dropped from the cache instead of being served.
+ */
+@Component
+public class LookupCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // Rough per-entry and per-row overhead (object headers, list, references) on top of the strings.
+    private static final int ENTRY_BYTES = 128;
+    private static final int ROW_BYTES = 64;
+
+    private final AsyncCache<String, List<DetailVO>> albumSearches;
+    private final AsyncCache<String, List<DetailVO>> albumTracks;
+
+    @Autowired
+    public LookupCache(
+            @Value("${chart.lookup.cache.search-ttl:PT6H}") Duration searchTtl,
+            @Value("${chart.lookup.cache.album-ttl:P7D}") Duration albumTtl,
+            @Value("${chart.lookup.cache.max-size:32MB}") DataSize maxSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.albumSearches = CaffeineCacheMetrics.monitor(meterRegistry, build(searchTtl, maxSize), "chart.lookup.album-search");
+        this.albumTracks = CaffeineCacheMetrics.monitor(meterRegistry, build(albumTtl, maxSize), "chart.lookup.album-tracks");
+    }
+
+    // Each search result page is its own entry.
+    public CompletableFuture<List<DetailVO>> getAlbums(
+            String provider, String artistName, int page, Supplier<CompletableFuture<List<DetailVO>>> fetch) {
+        return albumSearches.get(provider + ":" + page + ":" + normalize(artistName), (key, executor) -> load(fetch));
+    }
+
+    public CompletableFuture<List<DetailVO>> getSongLists(
+            String provider, String albumNumber, Supplier<CompletableFuture<List<DetailVO>>> fetch) {
+        return albumTracks.get(provider + ":" + albumNumber.trim(), (key, executor) -> load(fetch));
+    }
+
+    // Shared by every request for the key, so nobody may modify it.
+    private static CompletableFuture<List<DetailVO>> load(Supplier<CompletableFuture<List<DetailVO>>> fetch) {
+        return fetch.get().thenApply(Collections::unmodifiableList);
+    }
+
+    // "IU", " iu " and full-width "ＩＵ" are the same search.
+    static String normalize(String query) {
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFKC).trim();
+        return WHITESPACE.matcher(normalized).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static AsyncCache<String, List<DetailVO>> build(Duration ttl, DataSize maxSize) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, List<DetailVO> rows) -> weigh(key, rows))
+                .recordStats()
+                .buildAsync();
+    }
+
+    private static int weigh(String key, List<DetailVO> rows) {
+        long bytes = ENTRY_BYTES + 2L * key.length();
+        for (DetailVO row : rows) {
+            bytes += ROW_BYTES + 2L * length(row.getTitle()) + 2L * length(row.getNumber());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
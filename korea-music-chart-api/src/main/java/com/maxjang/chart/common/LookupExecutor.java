@@ -0,0 +1,92 @@
+package com.maxjang.chart.common;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs live upstream lookups (album search, song lists) off the request thread, on a small bounded
+ * pool per provider. Controllers return the future, so Tomcat's threads go back to serving charts
+ * while a scrape is in flight, and a slow provider can only fill its own pool and queue; beyond that
+ * its lookups are refused with 503 instead of piling up.
+ */
+@Component
+@Profile("!reactive")
+public class LookupExecutor {
+
+    private final int threads;
+    private final int queueSize;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LookupExecutor(
+            @Value("${chart.lookup.threads-per-provider:8}") int threads,
+            @Value("${chart.lookup.queue-per-provider:32}") int queueSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.threads = threads;
+        this.queueSize = queueSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // The future fails with the lookup's own exception, not a CompletionException wrapping it.
+    public <T> CompletableFuture<T> submit(String provider, Callable<T> lookup) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor(provider).execute(() -> {
+                try {
+                    future.complete(lookup.call());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            future.completeExceptionally(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many pending " + provider + " lookups"));
+        }
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    private ExecutorService executor(String provider) {
+        return executors.computeIfAbsent(provider, name -> {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize), threadFactory(name));
+            executor.allowCoreThreadTimeOut(true);
+            return ExecutorServiceMetrics.monitor(meterRegistry, executor, "chart.lookup", Tags.of("provider", name));
+        });
+    }
+
+    private static ThreadFactory threadFactory(String provider) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, provider + "-lookup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
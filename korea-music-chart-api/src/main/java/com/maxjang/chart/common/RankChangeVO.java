@@ -0,0 +1,18 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RankChangeVO {
+    private String change; // entered, dropped, up, down
+    private Integer rank; // null when dropped
+    private Integer previousRank; // null when entered
+    private Integer changedRank; // positions moved (up, down)
+    private String songNumber;
+    private String title;
+    private String artistName;
+}
@@ -0,0 +1,16 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RankPointVO {
+    private String chart; // e.g. melon/top100
+    private String at; // fetchedAt of the recorded snapshot
+    private Integer rank;
+    private String rankStatus;
+    private Integer changedRank;
+}
@@ -0,0 +1,152 @@
+package com.maxjang.chart.common;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link UpstreamHttpClient} for the reactive profile: the request goes out through a non-blocking
+ * {@link WebClient} and the body is parsed by the lookup's usual parser on a bounded parallel
+ * scheduler, so no thread waits on upstream. Rate limit, circuit breaker, retries and the call
+ * deadline are the blocking client's, per host.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveUpstreamClient {
+
+    // Album pages are a few hundred KB; the codec default (256 KB) is too small for them.
+    private static final int MAX_BODY_BYTES = 8 * 1024 * 1024;
+
+    private final UpstreamHttpClient upstreamHttpClient;
+    private final WebClient webClient;
+    private final Duration readTimeout;
+    private final Scheduler parseScheduler;
+
+    @Autowired
+    public ReactiveUpstreamClient(
+            UpstreamHttpClient upstreamHttpClient,
+            WebClient.Builder webClientBuilder,
+            @Value("${chart.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${chart.http.read-timeout:PT10S}") Duration readTimeout,
+            @Value("${chart.reactive.parse-threads:0}") int parseThreads
+    ) {
+        HttpClient httpClient = HttpClient.create()
+                .compress(true)
+                .followRedirect(true)
+                .tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis()));
+        this.upstreamHttpClient = upstreamHttpClient;
+        this.webClient = webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_BODY_BYTES))
+                .build();
+        this.readTimeout = readTimeout;
+        this.parseScheduler = Schedulers.newParallel("upstream-parse",
+                parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    public <T> Mono<T> get(UpstreamLookup<T> lookup) {
+        UpstreamRequest request = lookup.getRequest();
+        URI uri = URI.create(request.getUrl());
+        return Mono.defer(() -> attempt(uri, request.getHeaders(), upstreamHttpClient.guard(uri.getHost()),
+                        System.nanoTime() + upstreamHttpClient.getCallTimeout().toNanos(), 1))
+                .publishOn(parseScheduler)
+                .flatMap(response -> Mono.fromCallable(() -> upstreamHttpClient.parse(response, lookup.getParser())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parseScheduler.dispose();
+    }
+
+    // Same policy as UpstreamHttpClient#execute, with delays instead of sleeps.
+    private Mono<UpstreamResponse> attempt(URI uri, Map<String, String> headers, UpstreamGuard guard, long deadline, int attempt) {
+        long waitNanos;
+        try {
+            waitNanos = guard.reserve(deadline);
+        } catch (UpstreamUnavailableException ex) {
+            return Mono.error(ex);
+        }
+
+        Mono<UpstreamResponse> send = Mono.defer(() -> send(uri, headers, deadline));
+        AtomicBoolean recorded = new AtomicBoolean();
+        return (waitNanos > 0 ? Mono.delay(Duration.ofNanos(waitNanos)).then(send) : send)
+                .doOnEach(signal -> recorded.set(true))
+                .doOnCancel(() -> {
+                    // Cancelled during the rate-limit delay or the exchange: no result to record.
+                    if (!recorded.get()) {
+                        guard.release();
+                    }
+                })
+                .doOnNext(response -> guard.onSuccess())
+                .doOnError(ex -> !(ex instanceof IOException), ex -> guard.release())
+                .onErrorResume(IOException.class, ex -> {
+                    Duration retryAfter = null;
+                    if (ex instanceof UpstreamException) {
+                        UpstreamException upstream = (UpstreamException) ex;
+                        if (!UpstreamHttpClient.isRetryable(upstream.getStatusCode())) {
+                            guard.onSuccess();
+                            return Mono.error(ex);
+                        }
+                        retryAfter = upstream.getRetryAfter();
+                    }
+
+                    guard.onFailure(ex);
+                    long backoff = UpstreamHttpClient.backoffNanos(attempt, retryAfter);
+                    if (attempt >= upstreamHttpClient.getMaxAttempts() || System.nanoTime() + backoff >= deadline) {
+                        return Mono.error(ex);
+                    }
+                    guard.onRetry();
+                    return Mono.delay(Duration.ofNanos(backoff))
+                            .then(Mono.defer(() -> attempt(uri, headers, guard, deadline, attempt + 1)));
+                });
+    }
+
+    private Mono<UpstreamResponse> send(URI uri, Map<String, String> headers, long deadline) {
+        String url = uri.toString();
+        long start = System.nanoTime();
+        long remaining = Math.max(1, deadline - start);
+        return webClient.get()
+                .uri(uri)
+                .headers(requestHeaders -> headers.forEach(requestHeaders::set))
+                .exchange()
+                .flatMap(response -> {
+                    int status = response.rawStatusCode();
+                    upstreamHttpClient.recordTtfb(uri, String.valueOf(status), start);
+                    HttpHeaders responseHeaders = response.headers().asHttpHeaders();
+                    if (status < 200 || status >= 300) {
+                        return response.releaseBody().then(Mono.<UpstreamResponse>error(new UpstreamException(
+                                status, url, UpstreamHttpClient.retryAfter(responseHeaders.getFirst(HttpHeaders.RETRY_AFTER)))));
+                    }
+                    return response.bodyToMono(byte[].class)
+                            .defaultIfEmpty(new byte[0])
+                            .map(body -> new UpstreamResponse(url, status,
+                                    Objects.toString(responseHeaders.getFirst(HttpHeaders.CONTENT_TYPE), ""),
+                                    responseHeaders.getETag(),
+                                    responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED),
+                                    new ByteArrayInputStream(body)));
+                })
+                .timeout(readTimeout.toNanos() < remaining ? readTimeout : Duration.ofNanos(remaining))
+                .onErrorMap(ex -> !(ex instanceof IOException), ex -> ex instanceof TimeoutException
+                        ? new IOException("Timed out fetching " + url, ex)
+                        : new IOException("Failed to fetch " + url, ex));
+    }
+}
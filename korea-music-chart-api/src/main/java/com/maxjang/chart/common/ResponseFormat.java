@@ -15,4 +15,9 @@ import java.util.List;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class ResponseFormat<T> {
     private List<T> data;
+    private String nextCursor; // paginated lookups only; absent on the last page
+
+    public ResponseFormat(List<T> data) {
+        this.data = data;
+    }
 }
@@ -0,0 +1,96 @@
+package com.maxjang.chart.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Position in a paginated album search. Each cursor maps to one upstream search page, so page N is
+ * only fetched (and cached) when a client asks for it. The token is opaque to clients: the page
+ * number plus the first and last album of the page before. A page that starts or ends like the one
+ * before is a site answering past the end with its last page again; a page that only overlaps it
+ * (results shift when an artist releases an album, while the previous page sits in the lookup cache)
+ * drops the albums the client has already seen and paging goes on. Where the request sets the page
+ * size, a shorter page is the last one and gets no next cursor.
+ */
+public final class SearchCursor {
+
+    // The site picks its own page size, so only an empty page ends the search.
+    public static final int UNKNOWN_PAGE_SIZE = 0;
+
+    private static final int MAX_PAGE = 100;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final int page;
+    private final String first;
+    private final String after;
+    private final int pageSize;
+
+    private SearchCursor(int page, String first, String after, int pageSize) {
+        this.page = page;
+        this.first = first;
+        this.after = after;
+        this.pageSize = pageSize;
+    }
+
+    // No cursor is the first page. pageSize: albums the provider returns per page, or UNKNOWN_PAGE_SIZE.
+    public static SearchCursor parse(String cursor, int pageSize) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return new SearchCursor(1, null, null, pageSize);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 3);
+            int page = Integer.parseInt(parts[0]);
+            if (page < 2 || page > MAX_PAGE || parts.length != 3) {
+                throw new IllegalArgumentException("page " + page);
+            }
+            return new SearchCursor(page, parts[1], parts[2], pageSize);
+        } catch (RuntimeException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    // The albums of this page the client has not seen yet; none when the site repeated the previous page.
+    public List<DetailVO> albums(List<DetailVO> fetched) {
+        if (after == null || fetched.isEmpty()) {
+            return fetched;
+        }
+        if (repeatsPreviousPage(fetched)) {
+            return Collections.emptyList();
+        }
+        for (int i = fetched.size() - 1; i >= 0; i--) {
+            if (after.equals(fetched.get(i).getNumber())) {
+                return fetched.subList(i + 1, fetched.size());
+            }
+        }
+        return fetched;
+    }
+
+    // The cursor of the page after the fetched one; null once a page comes back empty, repeated or short of the page size.
+    public String next(List<DetailVO> fetched) {
+        if (fetched.isEmpty() || fetched.size() < pageSize || page >= MAX_PAGE || repeatsPreviousPage(fetched)) {
+            return null;
+        }
+        String firstAlbum = fetched.get(0).getNumber();
+        String lastAlbum = fetched.get(fetched.size() - 1).getNumber();
+        return ENCODER.encodeToString(((page + 1) + ":" + firstAlbum + ":" + lastAlbum).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ResponseFormat<DetailVO> respond(List<DetailVO> fetched) {
+        return new ResponseFormat<>(albums(fetched), next(fetched));
+    }
+
+    private boolean repeatsPreviousPage(List<DetailVO> fetched) {
+        return after != null && !fetched.isEmpty()
+                && (first.equals(fetched.get(0).getNumber()) || after.equals(fetched.get(fetched.size() - 1).getNumber()));
+    }
+}
@@ -0,0 +1,32 @@
+package com.maxjang.chart.common;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/status")
+public class StatusController {
+
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final UpstreamHttpClient upstreamHttpClient;
+
+    @Autowired
+    public StatusController(ChartSnapshotCache chartSnapshotCache, UpstreamHttpClient upstreamHttpClient) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.upstreamHttpClient = upstreamHttpClient;
+    }
+
+    // Age and last refresh error of every cached chart
+    @GetMapping("/charts")
+    public ResponseFormat<ChartStatusVO> getChartStatus() {
+        return new ResponseFormat<>(chartSnapshotCache.getStatus());
+    }
+
+    // Circuit breaker state, rate-limit tokens and retry counts of every upstream host
+    @GetMapping("/upstreams")
+    public ResponseFormat<UpstreamStatusVO> getUpstreamStatus() {
+        return new ResponseFormat<>(upstreamHttpClient.getStatus());
+    }
+}
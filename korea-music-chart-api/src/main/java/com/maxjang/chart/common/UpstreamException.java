@@ -0,0 +1,37 @@
+package com.maxjang.chart.common;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Upstream answered with a non-2xx status.
+ */
+public class UpstreamException extends IOException {
+    private final int statusCode;
+    private final String url;
+    private final Duration retryAfter;
+
+    public UpstreamException(int statusCode, String url) {
+        this(statusCode, url, null);
+    }
+
+    public UpstreamException(int statusCode, String url, Duration retryAfter) {
+        super("HTTP " + statusCode + " from " + url);
+        this.statusCode = statusCode;
+        this.url = url;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    // Retry-After of a 429/503, when upstream sent one in seconds
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
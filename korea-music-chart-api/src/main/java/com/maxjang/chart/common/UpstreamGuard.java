@@ -0,0 +1,135 @@
+package com.maxjang.chart.common;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Outbound protection for one upstream host: a token bucket that paces calls, and a circuit breaker
+ * that opens after {@code failureThreshold} failed attempts in a row. While open every call fails
+ * fast; after {@code openDuration} a single trial call decides whether it closes again.
+ */
+final class UpstreamGuard {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String host;
+    private final double ratePerSecond;
+    private final double burst;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openUntil;
+    private boolean trialInFlight;
+    private long attempts;
+    private long failures;
+    private long retries;
+    private long rejected;
+    private Instant lastFailureAt;
+    private String lastError;
+
+    UpstreamGuard(String host, double ratePerSecond, int burst, int failureThreshold, Duration openDuration) {
+        this.host = host;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.tokens = burst;
+    }
+
+    // Admits one attempt, waiting for a token if needed; fails fast when open or when the wait would pass the deadline.
+    void acquire(long deadlineNanos) throws UpstreamUnavailableException {
+        long waitNanos = reserve(deadlineNanos);
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                release();
+                throw new UpstreamUnavailableException(host, "interrupted");
+            }
+        }
+    }
+
+    // As acquire, but returns how long the caller must wait before the attempt instead of sleeping.
+    synchronized long reserve(long deadlineNanos) throws UpstreamUnavailableException {
+        admit();
+        refill();
+        tokens -= 1;
+        long waitNanos = tokens >= 0 ? 0 : (long) (-tokens / ratePerSecond * 1_000_000_000L);
+        if (System.nanoTime() + waitNanos > deadlineNanos) {
+            tokens += 1;
+            rejected++;
+            trialInFlight = false;
+            throw new UpstreamUnavailableException(host, "rate limit");
+        }
+        attempts++;
+        return waitNanos;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        openUntil = null;
+    }
+
+    synchronized void onFailure(Exception ex) {
+        failures++;
+        lastFailureAt = Instant.now();
+        lastError = String.valueOf(ex);
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openUntil = Instant.now().plus(openDuration);
+        }
+    }
+
+    // An admitted attempt that ended without a result (interrupted, cancelled, a bug): free the half-open trial.
+    synchronized void release() {
+        trialInFlight = false;
+    }
+
+    synchronized void onRetry() {
+        retries++;
+    }
+
+    synchronized UpstreamStatusVO getStatus() {
+        refill();
+        return UpstreamStatusVO.builder()
+                .host(host)
+                .state(state.name().toLowerCase())
+                .consecutiveFailures(consecutiveFailures)
+                .openUntil(openUntil != null ? openUntil.toString() : null)
+                .availableTokens((int) Math.max(0, Math.floor(tokens)))
+                .attempts(attempts)
+                .failures(failures)
+                .retries(retries)
+                .rejected(rejected)
+                .lastFailureAt(lastFailureAt != null ? lastFailureAt.toString() : null)
+                .lastError(lastError)
+                .build();
+    }
+
+    private void admit() throws UpstreamUnavailableException {
+        if (state == State.OPEN && !Instant.now().isBefore(openUntil)) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && trialInFlight)) {
+            rejected++;
+            throw new UpstreamUnavailableException(host, "circuit open");
+        }
+        if (state == State.HALF_OPEN) {
+            trialInFlight = true;
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) / 1_000_000_000.0 * ratePerSecond);
+        refilledAt = now;
+    }
+}
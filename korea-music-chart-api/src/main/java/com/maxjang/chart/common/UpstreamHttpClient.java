@@ -0,0 +1,385 @@
+package com.maxjang.chart.common;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.brotli.dec.BrotliInputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The one HTTP client every provider scrapes through. A single JDK {@link HttpClient} keeps a
+ * keep-alive connection pool per host (HTTP/2 where the site offers it), so refreshes don't pay a
+ * TLS handshake per page. Bodies are requested compressed, downloaded whole, and handed out as a
+ * decoded stream for jsoup or Jackson to parse.
+ *
+ * <p>Chart refreshes use conditional requests ({@link UpstreamRequest#getIfModified}) so an hour
+ * in which the chart did not move costs neither the download nor the parse.
+ *
+ * <p>Every call goes through the {@link UpstreamGuard} of its host (rate limit and circuit breaker)
+ * and is retried with jittered exponential backoff on timeouts, connection errors, 429 and 5xx,
+ * all within {@code chart.http.call-timeout}, so no caller waits on one upstream longer than that.
+ * Each attempt, body included, is also bounded by {@code chart.http.read-timeout}: a server that
+ * sends headers and then stalls mid-body fails the attempt instead of blocking the reader.
+ *
+ * <p>Meters, tagged by host: {@code chart.upstream.ttfb} (request sent until response headers,
+ * including DNS, connect and TLS, by status), {@code chart.upstream.download} (compressed body
+ * bytes) and {@code chart.upstream.parse} (parse time).
+ */
+@Component
+public class UpstreamHttpClient {
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate, br";
+    private static final Duration BASE_BACKOFF = Duration.ofMillis(250);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(4);
+
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final Duration callTimeout;
+    private final int maxAttempts;
+    private final double ratePerSecond;
+    private final int burst;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Map<String, ConditionalEntry> conditionalEntries = new ConcurrentHashMap<>();
+    private final Map<String, UpstreamGuard> guards = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public UpstreamHttpClient(
+            @Value("${chart.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${chart.http.read-timeout:PT10S}") Duration readTimeout,
+            @Value("${chart.http.call-timeout:PT15S}") Duration callTimeout,
+            @Value("${chart.http.max-attempts:3}") int maxAttempts,
+            @Value("${chart.http.rate-per-second:5}") double ratePerSecond,
+            @Value("${chart.http.burst:10}") int burst,
+            @Value("${chart.http.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${chart.http.breaker.open-duration:PT30S}") Duration openDuration,
+            MeterRegistry meterRegistry
+    ) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.readTimeout = readTimeout;
+        this.callTimeout = callTimeout;
+        this.maxAttempts = maxAttempts;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public UpstreamRequest request(String url) {
+        return new UpstreamRequest(this, url);
+    }
+
+    // Breaker and rate-limit state of every host called so far
+    public List<UpstreamStatusVO> getStatus() {
+        List<UpstreamStatusVO> statuses = new ArrayList<>();
+        for (UpstreamGuard guard : guards.values()) {
+            statuses.add(guard.getStatus());
+        }
+        statuses.sort(Comparator.comparing(UpstreamStatusVO::getHost));
+        return statuses;
+    }
+
+    // For user input placed in an upstream URL (artist names, album numbers)
+    public static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    UpstreamResponse execute(String url, Map<String, String> headers) throws IOException {
+        return execute(url, headers, false);
+    }
+
+    /**
+     * Conditional GET. {@code key} names what is being fetched (e.g. "genie/top200/pg2"); its
+     * validators and parsed value are remembered until the next fetch of the same URL. A 304, or a
+     * body byte-identical to the last one when upstream sends no validators, skips the parser.
+     */
+    @SuppressWarnings("unchecked")
+    <T> ConditionalResult<T> getIfModified(String url, Map<String, String> headers, String key, UpstreamParser<T> parser)
+            throws IOException {
+        ConditionalEntry previous = conditionalEntries.get(key);
+        if (previous != null && !previous.url.equals(url)) {
+            previous = null;
+        }
+
+        Map<String, String> conditionalHeaders = new LinkedHashMap<>(headers);
+        if (previous != null && previous.etag != null) {
+            conditionalHeaders.put("If-None-Match", previous.etag);
+        }
+        if (previous != null && previous.lastModified != null) {
+            conditionalHeaders.put("If-Modified-Since", previous.lastModified);
+        }
+
+        try (UpstreamResponse response = execute(url, conditionalHeaders, previous != null)) {
+            if (response.isNotModified()) {
+                return new ConditionalResult<>((T) previous.value, false);
+            }
+
+            if (response.getEtag() == null && response.getLastModified() == null) {
+                byte[] body = response.body().readAllBytes();
+                byte[] bodyHash = sha256(body);
+                if (previous != null && Arrays.equals(bodyHash, previous.bodyHash)) {
+                    return new ConditionalResult<>((T) previous.value, false);
+                }
+                T value = parse(response.withBody(new ByteArrayInputStream(body)), parser);
+                conditionalEntries.put(key, new ConditionalEntry(url, null, null, bodyHash, value));
+                return new ConditionalResult<>(value, true);
+            }
+
+            T value = parse(response, parser);
+            conditionalEntries.put(key, new ConditionalEntry(url, response.getEtag(), response.getLastModified(), null, value));
+            return new ConditionalResult<>(value, true);
+        }
+    }
+
+    <T> T parse(UpstreamResponse response, UpstreamParser<T> parser) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return parser.parse(response);
+        } finally {
+            Timer.builder("chart.upstream.parse")
+                    .tag("host", hostOf(response.getUrl()))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    UpstreamGuard guard(String host) {
+        return guards.computeIfAbsent(String.valueOf(host),
+                name -> new UpstreamGuard(name, ratePerSecond, burst, failureThreshold, openDuration));
+    }
+
+    Duration getCallTimeout() {
+        return callTimeout;
+    }
+
+    int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    private UpstreamResponse execute(String url, Map<String, String> headers, boolean allowNotModified) throws IOException {
+        URI uri = URI.create(url);
+        UpstreamGuard guard = guard(uri.getHost());
+        long deadline = System.nanoTime() + callTimeout.toNanos();
+
+        for (int attempt = 1; ; attempt++) {
+            guard.acquire(deadline);
+            IOException failure = null;
+            Duration retryAfter = null;
+            boolean recorded = false;
+            try {
+                UpstreamResponse response = send(uri, headers, allowNotModified, deadline);
+                guard.onSuccess();
+                recorded = true;
+                return response;
+            } catch (UpstreamException ex) {
+                if (!isRetryable(ex.getStatusCode())) {
+                    // Upstream answered (404 for an unknown album, ...); that says nothing about its health.
+                    guard.onSuccess();
+                    recorded = true;
+                    throw ex;
+                }
+                failure = ex;
+                retryAfter = ex.getRetryAfter();
+            } catch (IOException ex) {
+                failure = ex;
+            } finally {
+                if (!recorded && failure == null) {
+                    guard.release();
+                }
+            }
+
+            guard.onFailure(failure);
+            long backoff = backoffNanos(attempt, retryAfter);
+            if (attempt >= maxAttempts || Thread.currentThread().isInterrupted() || System.nanoTime() + backoff >= deadline) {
+                throw failure;
+            }
+            guard.onRetry();
+            try {
+                Thread.sleep(backoff / 1_000_000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+        }
+    }
+
+    private UpstreamResponse send(URI uri, Map<String, String> headers, boolean allowNotModified, long deadline)
+            throws IOException {
+        String url = uri.toString();
+        long remaining = Math.max(1, deadline - System.nanoTime());
+        Duration timeout = readTimeout.toNanos() < remaining ? readTimeout : Duration.ofNanos(remaining);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept-Encoding", ACCEPT_ENCODING)
+                .GET();
+        headers.forEach(builder::header);
+
+        // HttpRequest#timeout only covers the wait for headers; the body has to arrive in time too.
+        long start = System.nanoTime();
+        AtomicBoolean headersReceived = new AtomicBoolean();
+        CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(builder.build(), info -> {
+            headersReceived.set(true);
+            recordTtfb(uri, String.valueOf(info.statusCode()), start);
+            return info.statusCode() >= 200 && info.statusCode() < 300
+                    ? HttpResponse.BodySubscribers.ofByteArray()
+                    : HttpResponse.BodySubscribers.replacing(new byte[0]);
+        });
+        HttpResponse<byte[]> response;
+        try {
+            response = exchange.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            exchange.cancel(true);
+            if (!headersReceived.get()) {
+                recordTtfb(uri, HttpTimeoutException.class.getSimpleName(), start);
+            }
+            throw new HttpTimeoutException("Timed out fetching " + url);
+        } catch (InterruptedException ex) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching " + url, ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (!headersReceived.get()) {
+                recordTtfb(uri, cause.getClass().getSimpleName(), start);
+            }
+            throw cause instanceof IOException ? (IOException) cause : new IOException("Failed to fetch " + url, cause);
+        }
+
+        int status = response.statusCode();
+        boolean notModified = status == 304 && allowNotModified;
+        if ((status < 200 || status >= 300) && !notModified) {
+            throw new UpstreamException(status, url, retryAfter(response.headers().firstValue("Retry-After").orElse(null)));
+        }
+
+        HttpHeaders headersIn = response.headers();
+        byte[] body = response.body();
+        countDownload(uri, body.length);
+        return new UpstreamResponse(url, status,
+                headersIn.firstValue("Content-Type").orElse(""),
+                headersIn.firstValue("ETag").orElse(null),
+                headersIn.firstValue("Last-Modified").orElse(null),
+                notModified ? new ByteArrayInputStream(body) : decode(response, new ByteArrayInputStream(body)));
+    }
+
+    void recordTtfb(URI uri, String status, long start) {
+        Timer.builder("chart.upstream.ttfb")
+                .description("Request sent until response headers, including DNS, connect and TLS")
+                .tags("host", String.valueOf(uri.getHost()), "status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void countDownload(URI uri, long bytes) {
+        DistributionSummary.builder("chart.upstream.download")
+                .description("Response body bytes as sent, before decompression")
+                .baseUnit("bytes")
+                .tag("host", String.valueOf(uri.getHost()))
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private static String hostOf(String url) {
+        return String.valueOf(URI.create(url).getHost());
+    }
+
+    static boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    // Exponential with equal jitter (half fixed, half random), or upstream's Retry-After when longer.
+    static long backoffNanos(int attempt, Duration retryAfter) {
+        long ceiling = Math.min(MAX_BACKOFF.toNanos(), BASE_BACKOFF.toNanos() << Math.min(attempt - 1, 16));
+        long backoff = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        return retryAfter != null ? Math.max(backoff, retryAfter.toNanos()) : backoff;
+    }
+
+    static Duration retryAfter(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ex) {
+            // HTTP-date form; fall back to our own backoff.
+            return null;
+        }
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private InputStream decode(HttpResponse<?> response, InputStream body) throws IOException {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase();
+        switch (encoding) {
+            case "gzip":
+                return new GZIPInputStream(body);
+            case "deflate":
+                return new InflaterInputStream(body);
+            case "br":
+                return new BrotliInputStream(body);
+            default:
+                return body;
+        }
+    }
+
+    private static final class ConditionalEntry {
+        private final String url;
+        private final String etag;
+        private final String lastModified;
+        private final byte[] bodyHash;
+        private final Object value;
+
+        private ConditionalEntry(String url, String etag, String lastModified, byte[] bodyHash, Object value) {
+            this.url = url;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.bodyHash = bodyHash;
+            this.value = value;
+        }
+    }
+}
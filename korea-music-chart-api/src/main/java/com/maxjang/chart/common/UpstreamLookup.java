@@ -0,0 +1,30 @@
+package com.maxjang.chart.common;
+
+import java.io.IOException;
+
+/**
+ * A live lookup (album search, song list) as a request plus the parser for its response, so the
+ * same scraper can be run blocking through {@link #get()} or non-blocking by
+ * {@link ReactiveUpstreamClient}.
+ */
+public class UpstreamLookup<T> {
+    private final UpstreamRequest request;
+    private final UpstreamParser<T> parser;
+
+    public UpstreamLookup(UpstreamRequest request, UpstreamParser<T> parser) {
+        this.request = request;
+        this.parser = parser;
+    }
+
+    public UpstreamRequest getRequest() {
+        return request;
+    }
+
+    public UpstreamParser<T> getParser() {
+        return parser;
+    }
+
+    public T get() throws IOException {
+        return request.get(parser);
+    }
+}
@@ -0,0 +1,8 @@
+package com.maxjang.chart.common;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface UpstreamParser<T> {
+    T parse(UpstreamResponse response) throws IOException;
+}
@@ -0,0 +1,64 @@
+package com.maxjang.chart.common;
+
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request builder returned by {@link UpstreamHttpClient#request(String)}, shaped after
+ * {@code Jsoup.connect(url)} so the scrapers read the same as before.
+ */
+public class UpstreamRequest {
+    private final UpstreamHttpClient client;
+    private final String url;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    UpstreamRequest(UpstreamHttpClient client, String url) {
+        this.client = client;
+        this.url = url;
+    }
+
+    public UpstreamRequest userAgent(String userAgent) {
+        return header("User-Agent", userAgent);
+    }
+
+    public UpstreamRequest referrer(String referrer) {
+        return header("Referer", referrer);
+    }
+
+    public UpstreamRequest header(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    // Caller must close the response
+    public UpstreamResponse execute() throws IOException {
+        return client.execute(url, headers);
+    }
+
+    // See UpstreamHttpClient#getIfModified
+    public <T> ConditionalResult<T> getIfModified(String key, UpstreamParser<T> parser) throws IOException {
+        return client.getIfModified(url, headers, key, parser);
+    }
+
+    public Document get() throws IOException {
+        return get(UpstreamResponse::parse);
+    }
+
+    // Reads the body with the given parser instead of building a jsoup Document
+    public <T> T get(UpstreamParser<T> parser) throws IOException {
+        try (UpstreamResponse response = execute()) {
+            return client.parse(response, parser);
+        }
+    }
+}
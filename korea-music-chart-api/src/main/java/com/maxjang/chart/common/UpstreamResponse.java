@@ -0,0 +1,84 @@
+package com.maxjang.chart.common;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Successful (2xx, or 304 for conditional requests) upstream response whose body is a
+ * decompressed stream, not yet read.
+ */
+public class UpstreamResponse implements Closeable {
+    private static final Pattern CHARSET = Pattern.compile("(?i)charset=\"?([^\\s;\"]+)");
+
+    private final String url;
+    private final int statusCode;
+    private final String contentType;
+    private final String etag;
+    private final String lastModified;
+    private final InputStream body;
+
+    UpstreamResponse(String url, int statusCode, String contentType, String etag, String lastModified, InputStream body) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.contentType = contentType;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.body = body;
+    }
+
+    UpstreamResponse withBody(InputStream replacement) {
+        return new UpstreamResponse(url, statusCode, contentType, etag, lastModified, replacement);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isNotModified() {
+        return statusCode == 304;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public InputStream body() {
+        return body;
+    }
+
+    // Charset from Content-Type, or null to let jsoup sniff it from the document
+    public String charset() {
+        Matcher m = CHARSET.matcher(contentType);
+        return m.find() ? m.group(1) : null;
+    }
+
+    // Parses the stream the way Jsoup.connect().get() would: XML responses with the XML parser.
+    public Document parse() throws IOException {
+        Parser parser = contentType.contains("xml") ? Parser.xmlParser() : Parser.htmlParser();
+        return Jsoup.parse(body, charset(), url, parser);
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
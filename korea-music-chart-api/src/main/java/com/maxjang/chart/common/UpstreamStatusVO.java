@@ -0,0 +1,22 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UpstreamStatusVO {
+    private String host; // e.g. www.melon.com
+    private String state; // closed, open, half_open
+    private Integer consecutiveFailures;
+    private String openUntil;
+    private Integer availableTokens;
+    private Long attempts;
+    private Long failures;
+    private Long retries;
+    private Long rejected; // failed fast (circuit open or rate limit)
+    private String lastFailureAt;
+    private String lastError;
+}
@@ -0,0 +1,24 @@
+package com.maxjang.chart.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.IOException;
+
+/**
+ * Call not attempted: the host's circuit breaker is open or its rate limit would be exceeded.
+ * Chart refreshes keep serving the last snapshot; live lookups answer 503.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class UpstreamUnavailableException extends IOException {
+    private final String host;
+
+    public UpstreamUnavailableException(String host, String reason) {
+        super(host + " unavailable: " + reason);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
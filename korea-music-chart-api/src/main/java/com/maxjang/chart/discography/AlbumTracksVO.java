@@ -0,0 +1,19 @@
+package com.maxjang.chart.discography;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.maxjang.chart.common.DetailVO;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AlbumTracksVO {
+    private String title; // album title, discography only
+    private String number; // album number
+    private String status; // ok, error
+    private String error; // upstream_unavailable, internal_error
+    private List<DetailVO> songs;
+}
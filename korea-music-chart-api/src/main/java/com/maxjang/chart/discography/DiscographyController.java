@@ -0,0 +1,66 @@
+package com.maxjang.chart.discography;
+
+import com.maxjang.chart.common.DetailVO;
+import com.maxjang.chart.common.LookupCache;
+import com.maxjang.chart.common.LookupExecutor;
+import com.maxjang.chart.common.ResponseFormat;
+import com.maxjang.chart.common.SearchCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@Profile("!reactive")
+public class DiscographyController {
+
+    private static final String LOOKUP_PROVIDERS = "melon|genie|bugs|vibe";
+
+    private final DiscographyService discographyService;
+    private final LookupExecutor lookupExecutor;
+    private final LookupCache lookupCache;
+
+    @Autowired
+    public DiscographyController(DiscographyService discographyService, LookupExecutor lookupExecutor, LookupCache lookupCache) {
+        this.discographyService = discographyService;
+        this.lookupExecutor = lookupExecutor;
+        this.lookupCache = lookupCache;
+    }
+
+    // body: album numbers, e.g. ["10486847", "10353826"]
+    @PostMapping("/{provider:" + LOOKUP_PROVIDERS + "}/songs:batch")
+    public CompletableFuture<ResponseFormat<AlbumTracksVO>> getSongsBatch(
+            @PathVariable String provider,
+            @RequestBody List<String> albumNumbers
+    ) {
+        return discographyService.getSongLists(discographyService.batchAlbums(albumNumbers), number -> songLists(provider, number))
+                .thenApply(ResponseFormat::new);
+    }
+
+    // The artist's albums, each with its songs, one search result page per cursor.
+    @GetMapping("/{provider:" + LOOKUP_PROVIDERS + "}/discography/{artistName}")
+    public CompletableFuture<ResponseFormat<AlbumTracksVO>> getDiscography(
+            @PathVariable String provider,
+            @PathVariable String artistName,
+            @RequestParam(required = false) String cursor
+    ) {
+        SearchCursor searchCursor = SearchCursor.parse(cursor, discographyService.albumPageSize(provider));
+        int page = searchCursor.getPage();
+        return lookupCache.getAlbums(provider, artistName, page,
+                        () -> lookupExecutor.submit(provider, discographyService.albumLookup(provider, artistName, page)::get))
+                .thenCompose(fetched -> discographyService.getSongLists(searchCursor.albums(fetched), number -> songLists(provider, number))
+                        .thenApply(tracks -> new ResponseFormat<>(tracks, searchCursor.next(fetched))));
+    }
+
+    private CompletableFuture<List<DetailVO>> songLists(String provider, String albumNumber) {
+        return lookupCache.getSongLists(provider, albumNumber,
+                () -> lookupExecutor.submit(provider, discographyService.songListLookup(provider, albumNumber)::get));
+    }
+}
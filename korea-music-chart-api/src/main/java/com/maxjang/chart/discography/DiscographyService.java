@@ -0,0 +1,155 @@
+package com.maxjang.chart.discography;
+
+import com.maxjang.chart.bugs.BugsChartService;
+import com.maxjang.chart.common.DetailVO;
+import com.maxjang.chart.common.SearchCursor;
+import com.maxjang.chart.common.UpstreamLookup;
+import com.maxjang.chart.genie.GenieChartService;
+import com.maxjang.chart.melon.MelonChartService;
+import com.maxjang.chart.vibe.VibeChartService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Song lists of many albums in one request. A batch runs a few albums at a time rather than all at
+ * once, so one discography cannot fill the provider's lookup queue or spend its rate limit in a
+ * single burst, and an album that fails only marks its own entry. How a song list is fetched
+ * (lookup pool or WebClient, through the lookup cache) is left to the calling controller.
+ */
+@Service
+public class DiscographyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscographyService.class);
+
+    private final MelonChartService melonChartService;
+    private final GenieChartService genieChartService;
+    private final BugsChartService bugsChartService;
+    private final VibeChartService vibeChartService;
+    private final int concurrency;
+    private final int maxAlbums;
+
+    @Autowired
+    public DiscographyService(
+            MelonChartService melonChartService,
+            GenieChartService genieChartService,
+            BugsChartService bugsChartService,
+            VibeChartService vibeChartService,
+            @Value("${chart.lookup.batch-concurrency:4}") int concurrency,
+            @Value("${chart.lookup.batch-max-albums:50}") int maxAlbums
+    ) {
+        this.melonChartService = melonChartService;
+        this.genieChartService = genieChartService;
+        this.bugsChartService = bugsChartService;
+        this.vibeChartService = vibeChartService;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxAlbums = maxAlbums;
+    }
+
+    public UpstreamLookup<List<DetailVO>> albumLookup(String provider, String artistName, int page) {
+        switch (provider) {
+            case "melon":
+                return melonChartService.albumLookup(artistName, page);
+            case "genie":
+                return genieChartService.albumLookup(artistName, page);
+            case "bugs":
+                return bugsChartService.albumLookup(artistName, page);
+            default:
+                return vibeChartService.albumLookup(artistName, page);
+        }
+    }
+
+    // Genie and Bugs search pages are sized by the site, not by the request.
+    public int albumPageSize(String provider) {
+        switch (provider) {
+            case "melon":
+                return MelonChartService.ALBUM_PAGE_SIZE;
+            case "vibe":
+                return VibeChartService.ALBUM_PAGE_SIZE;
+            default:
+                return SearchCursor.UNKNOWN_PAGE_SIZE;
+        }
+    }
+
+    public UpstreamLookup<List<DetailVO>> songListLookup(String provider, String albumNumber) {
+        switch (provider) {
+            case "melon":
+                return melonChartService.songListLookup(albumNumber);
+            case "genie":
+                return genieChartService.songListLookup(albumNumber);
+            case "bugs":
+                return bugsChartService.songListLookup(albumNumber);
+            default:
+                return vibeChartService.songListLookup(albumNumber);
+        }
+    }
+
+    // Requested album numbers, trimmed and without duplicates, in request order.
+    public List<DetailVO> batchAlbums(List<String> albumNumbers) {
+        Set<String> numbers = new LinkedHashSet<>();
+        if (albumNumbers != null) {
+            for (String number : albumNumbers) {
+                if (number != null && !number.trim().isEmpty()) {
+                    numbers.add(number.trim());
+                }
+            }
+        }
+        if (numbers.size() > maxAlbums) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxAlbums + " albums per batch");
+        }
+        List<DetailVO> albums = new ArrayList<>();
+        numbers.forEach(number -> albums.add(DetailVO.builder().number(number).build()));
+        return albums;
+    }
+
+    // Entries come back in album order, whatever order the song lists arrive in.
+    public CompletableFuture<List<AlbumTracksVO>> getSongLists(
+            List<DetailVO> albums, Function<String, CompletableFuture<List<DetailVO>>> songLists) {
+        AlbumTracksVO[] results = new AlbumTracksVO[albums.size()];
+        AtomicInteger next = new AtomicInteger();
+        CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(concurrency, albums.size())];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = fetchNext(albums, songLists, results, next);
+        }
+        return CompletableFuture.allOf(workers).thenApply(done -> Arrays.asList(results));
+    }
+
+    // Each worker takes the next album as soon as its current one is done.
+    private static CompletableFuture<Void> fetchNext(List<DetailVO> albums, Function<String, CompletableFuture<List<DetailVO>>> songLists,
+                                                     AlbumTracksVO[] results, AtomicInteger next) {
+        int index = next.getAndIncrement();
+        if (index >= albums.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        DetailVO album = albums.get(index);
+        return songLists.apply(album.getNumber())
+                .handle((songs, ex) -> results[index] = tracks(album, songs, ex))
+                .thenCompose(done -> fetchNext(albums, songLists, results, next));
+    }
+
+    // Clients get a stable code; the cause (exception, upstream URL) only goes to the log.
+    private static AlbumTracksVO tracks(DetailVO album, List<DetailVO> songs, Throwable ex) {
+        AlbumTracksVO.AlbumTracksVOBuilder tracks = AlbumTracksVO.builder().title(album.getTitle()).number(album.getNumber());
+        if (ex == null) {
+            return tracks.status("ok").songs(songs).build();
+        }
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        logger.warn("Failed to fetch the song list of album {}", album.getNumber(), cause);
+        return tracks.status("error").error(cause instanceof IOException ? "upstream_unavailable" : "internal_error").build();
+    }
+}
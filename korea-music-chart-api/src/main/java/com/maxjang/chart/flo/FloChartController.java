@@ -1,14 +1,18 @@
 package com.maxjang.chart.flo;
 
-import com.maxjang.chart.common.ChartVO;
-import com.maxjang.chart.common.ResponseFormat;
+import com.maxjang.chart.common.ChartResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/flo")
 public class FloChartController {
 
@@ -20,12 +24,19 @@ public class FloChartController {
     }
 
     @GetMapping("/chart")
-    public ResponseFormat<ChartVO> getFloChartTop100() throws Exception {
-        return new ResponseFormat<>(floChartService.getFloChartTop100(null));
+    public ResponseEntity<?> getFloChartTop100(
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(floChartService.getFloChartSnapshot(at), null, request);
     }
 
     @GetMapping("/chart/{artistName}")
-    public ResponseFormat<ChartVO> getFloChartTop100ByArtistName(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(floChartService.getFloChartTop100(artistName));
+    public ResponseEntity<?> getFloChartTop100ByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(floChartService.getFloChartSnapshot(at), artistName, request);
     }
 }
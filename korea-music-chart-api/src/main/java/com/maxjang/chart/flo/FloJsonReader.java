@@ -0,0 +1,243 @@
+package com.maxjang.chart.flo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.maxjang.chart.common.ChartVO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams FLO's track list response straight into {@link ChartVO}s. Only the fields the chart needs
+ * are read; everything else in a track (artist images, flags, trackArtistList, ...) is skipped token
+ * by token, so memory per track stays constant whatever {@code size=} the page is fetched with.
+ *
+ * <p>Reads {@code data.trackList[]}: id, name, album.title, album.img.urlFormat, album.imgList[],
+ * representationArtist.name, artistList[].name, rank.newYn and rank.rankBadge.
+ */
+final class FloJsonReader {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int ALBUM_ART_SIZE = 350;
+    private static final String ALBUM_ART_SIZE_TEXT = String.valueOf(ALBUM_ART_SIZE);
+
+    private FloJsonReader() {
+    }
+
+    static List<ChartVO> readChart(InputStream body) throws IOException {
+        List<ChartVO> data = new ArrayList<>();
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return data;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals("data") && value == JsonToken.START_OBJECT) {
+                    readData(parser, data);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return data;
+    }
+
+    private static void readData(JsonParser parser, List<ChartVO> data) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("trackList") && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    Track track = new Track();
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        readTrack(parser, track);
+                    } else {
+                        parser.skipChildren();
+                    }
+                    data.add(track.toChart(data.size() + 1));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readTrack(JsonParser parser, Track track) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id":
+                    track.id = parser.getValueAsString();
+                    break;
+                case "name":
+                    track.name = parser.getValueAsString();
+                    break;
+                case "album":
+                    if (value == JsonToken.START_OBJECT) readAlbum(parser, track);
+                    break;
+                case "representationArtist":
+                    if (value == JsonToken.START_OBJECT) track.representationArtist = readName(parser);
+                    break;
+                case "artistList":
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            String name = parser.currentToken() == JsonToken.START_OBJECT ? readName(parser) : skip(parser);
+                            if (name != null && !name.trim().isEmpty()) {
+                                track.artistNames.add(name.trim());
+                            }
+                        }
+                    }
+                    break;
+                case "rank":
+                    if (value == JsonToken.START_OBJECT) readRank(parser, track);
+                    break;
+                default:
+                    break;
+            }
+            // No-op for scalars and for objects/arrays read above (they end on their closing token).
+            parser.skipChildren();
+        }
+    }
+
+    private static void readAlbum(JsonParser parser, Track track) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("title")) {
+                track.albumTitle = parser.getValueAsString();
+            } else if (field.equals("img") && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String imgField = parser.getCurrentName();
+                    parser.nextToken();
+                    if (imgField.equals("urlFormat")) {
+                        track.albumUrlFormat = parser.getValueAsString();
+                    }
+                    parser.skipChildren();
+                }
+            } else if (field.equals("imgList") && value == JsonToken.START_ARRAY && !hasUrlFormat(track)) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        readImage(parser, track);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readImage(JsonParser parser, Track track) throws IOException {
+        Integer size = null;
+        String url = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("size") && value != JsonToken.VALUE_NULL) {
+                size = parser.getValueAsInt();
+            } else if (field.equals("url") && (size == null || size == ALBUM_ART_SIZE)) {
+                url = parser.getValueAsString();
+            }
+            parser.skipChildren();
+        }
+        if (track.albumImage == null && size != null && size == ALBUM_ART_SIZE && url != null) {
+            track.albumImage = url;
+        }
+    }
+
+    // img.urlFormat wins over imgList, so imgList isn't worth decoding once it is known.
+    private static boolean hasUrlFormat(Track track) {
+        return track.albumUrlFormat != null && !track.albumUrlFormat.trim().isEmpty();
+    }
+
+    private static void readRank(JsonParser parser, Track track) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("newYn")) {
+                track.newYn = parser.getValueAsString();
+            } else if (field.equals("rankBadge") && value != JsonToken.VALUE_NULL) {
+                track.rankBadge = parser.getValueAsInt();
+            }
+            parser.skipChildren();
+        }
+    }
+
+    // {"name": ...} objects; returns the name and leaves the parser on the closing brace.
+    private static String readName(JsonParser parser) throws IOException {
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (field.equals("name")) {
+                name = parser.getValueAsString();
+            }
+            parser.skipChildren();
+        }
+        return name;
+    }
+
+    private static String skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return null;
+    }
+
+    // The fields of one track, resolved into a chart row the same way the old object binding did.
+    private static final class Track {
+        private String id;
+        private String name;
+        private String albumTitle;
+        private String albumUrlFormat;
+        private String albumImage;
+        private String representationArtist;
+        private final List<String> artistNames = new ArrayList<>(2);
+        private String newYn;
+        private Integer rankBadge;
+
+        private ChartVO toChart(int rank) {
+            ChartVO.ChartVOBuilder chart = ChartVO.builder()
+                    .rank(rank)
+                    .artistName(resolveArtistName())
+                    .title(name)
+                    .albumName(albumTitle)
+                    .albumArt(resolveAlbumArt())
+                    .songNumber(id);
+            // rank.newYn: 'Y' => new; rank.rankBadge: positive=up, negative=down, 0=static
+            if (isYes(newYn)) {
+                chart.rankStatus("new").changedRank(0);
+            } else if (rankBadge == null || rankBadge == 0) {
+                chart.rankStatus("static").changedRank(0);
+            } else if (rankBadge > 0) {
+                chart.rankStatus("up").changedRank(rankBadge);
+            } else {
+                chart.rankStatus("down").changedRank(-rankBadge);
+            }
+            return chart.build();
+        }
+
+        private String resolveArtistName() {
+            if (representationArtist != null) {
+                return representationArtist;
+            }
+            return artistNames.isEmpty() ? null : String.join(", ", artistNames);
+        }
+
+        private String resolveAlbumArt() {
+            if (hasUrlFormat(this)) {
+                return albumUrlFormat.replace("{size}", ALBUM_ART_SIZE_TEXT);
+            }
+            return albumImage;
+        }
+
+        private boolean isYes(String value) {
+            if (value == null) return false;
+            String v = value.trim().toLowerCase();
+            return v.equals("y") || v.equals("yes") || v.equals("true");
+        }
+    }
+}
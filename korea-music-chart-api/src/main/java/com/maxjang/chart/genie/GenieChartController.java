@@ -1,42 +1,70 @@
 package com.maxjang.chart.genie;
 
 import com.maxjang.chart.common.DetailVO;
-import com.maxjang.chart.common.ChartVO;
+import com.maxjang.chart.common.LookupCache;
+import com.maxjang.chart.common.LookupExecutor;
+import com.maxjang.chart.common.ChartResponses;
 import com.maxjang.chart.common.ResponseFormat;
+import com.maxjang.chart.common.SearchCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/genie")
 public class GenieChartController {
 
     private final GenieChartService genieChartService;
+    private final LookupExecutor lookupExecutor;
+    private final LookupCache lookupCache;
 
     @Autowired
-    public GenieChartController(GenieChartService genieChartService) {
+    public GenieChartController(GenieChartService genieChartService, LookupExecutor lookupExecutor, LookupCache lookupCache) {
         this.genieChartService = genieChartService;
+        this.lookupExecutor = lookupExecutor;
+        this.lookupCache = lookupCache;
     }
 
     @GetMapping("/chart")
-    public ResponseFormat<ChartVO> getGenieChartTop100() throws Exception {
-        return new ResponseFormat<>(genieChartService.getGenieChartTop100(null));
+    public ResponseEntity<?> getGenieChartTop100(
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(genieChartService.getGenieChartSnapshot(at), null, request);
     }
     @GetMapping("/chart/{artistName}")
-    public ResponseFormat<ChartVO>  getGenieChartTop100ByArtistName(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(genieChartService.getGenieChartTop100(artistName));
+    public ResponseEntity<?> getGenieChartTop100ByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(genieChartService.getGenieChartSnapshot(at), artistName, request);
     }
 
     @GetMapping("/albums/{artistName}")
-    public ResponseFormat<DetailVO> getAlbums(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(genieChartService.getAlbums(artistName));
+    public CompletableFuture<ResponseFormat<DetailVO>> getAlbums(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String cursor
+    ) {
+        SearchCursor searchCursor = SearchCursor.parse(cursor, SearchCursor.UNKNOWN_PAGE_SIZE);
+        int page = searchCursor.getPage();
+        return lookupCache.getAlbums("genie", artistName, page, () -> lookupExecutor.submit("genie", () -> genieChartService.getAlbums(artistName, page)))
+                .thenApply(searchCursor::respond);
     }
 
     @GetMapping("/songs/{albumNumber}")
-    public ResponseFormat<DetailVO> getSongs(@PathVariable String albumNumber) throws Exception {
-        return new ResponseFormat<>(genieChartService.getSongLists(albumNumber));
+    public CompletableFuture<ResponseFormat<DetailVO>> getSongs(@PathVariable String albumNumber) {
+        return lookupCache.getSongLists("genie", albumNumber, () -> lookupExecutor.submit("genie", () -> genieChartService.getSongLists(albumNumber)))
+                .thenApply(ResponseFormat::new);
     }
 
 
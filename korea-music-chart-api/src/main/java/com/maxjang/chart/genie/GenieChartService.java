@@ -1,142 +1,254 @@
 package com.maxjang.chart.genie;
 
+import com.maxjang.chart.common.ChartRows;
+import com.maxjang.chart.common.ChartSnapshot;
+import com.maxjang.chart.common.ChartSnapshotCache;
+import com.maxjang.chart.common.ChartType;
 import com.maxjang.chart.common.DetailVO;
 import com.maxjang.chart.common.ChartVO;
-import org.jsoup.Jsoup;
+import com.maxjang.chart.common.UpstreamHttpClient;
+import com.maxjang.chart.common.UpstreamLookup;
+import com.maxjang.chart.common.UpstreamRequest;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 public class GenieChartService {
     private static final ZoneId KST = ZoneId.of("Asia/Seoul");
     private static final DateTimeFormatter GENIE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
     private static final DateTimeFormatter GENIE_HOUR = DateTimeFormatter.ofPattern("HH");
+    private static final int PAGE_COUNT = 4;
+    private static final int PAGE_SIZE = 50;
+    // Parsed once instead of per row
+    private static final Evaluator CHART_ROWS = QueryParser.parse("table.list-wrap tbody tr.list");
+    private static final Evaluator RANK_NUMBER = QueryParser.parse("td.number");
+    private static final Evaluator TITLE = QueryParser.parse("td.info a.title");
+    private static final Evaluator ARTIST = QueryParser.parse("td.info a.artist");
+    private static final Evaluator ALBUM = QueryParser.parse("td.info a.albumtitle");
+    private static final Evaluator ALBUM_ART = QueryParser.parse("td a.cover img");
+    private static final Evaluator RANK_STATUS = QueryParser.parse(
+            "td.number span.rank span.rank-up, td.number span.rank span.rank-down, td.number span.rank span.rank-none, "
+                    + "td.number span.rank span.rank-new, td.number span.rank span.rank-re");
+    private static final Evaluator SONG_TITLE = QueryParser.parse(".title");
+    private static final Pattern ALBUM_ID = Pattern.compile("fnViewAlbumLayer\\('(.*?)'\\)");
+
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final UpstreamHttpClient upstreamHttpClient;
+    private final ExecutorService pageExecutor = Executors.newFixedThreadPool(PAGE_COUNT);
+    // Two fetchChart runs can overlap once the snapshot cache abandons a load on timeout, so the
+    // previous pages and the chart built from them are read and replaced as one pair.
+    private volatile PreviousChart previous = new PreviousChart(Collections.emptyList(), null);
+
+    @Autowired
+    public GenieChartService(ChartSnapshotCache chartSnapshotCache, UpstreamHttpClient upstreamHttpClient) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.upstreamHttpClient = upstreamHttpClient;
+    }
+
+    @PostConstruct
+    public void registerCharts() {
+        chartSnapshotCache.register(ChartType.GENIE_TOP200, this::fetchChart);
+    }
 
     // Get Top200 Chart
     public List<ChartVO> getGenieChartTop100(String artistName) throws Exception {
+        return getGenieChartSnapshot().filterByArtist(artistName);
+    }
+
+    public ChartSnapshot getGenieChartSnapshot() throws Exception {
+        return getGenieChartSnapshot(null);
+    }
+
+    public ChartSnapshot getGenieChartSnapshot(String at) throws Exception {
+        return chartSnapshotCache.get(ChartType.GENIE_TOP200, at);
+    }
+
+    private List<ChartVO> fetchChart() throws Exception {
         ZonedDateTime now = ZonedDateTime.now(KST);
         String ymd = now.format(GENIE_DATE);
         String hh = now.format(GENIE_HOUR);
 
-        List<ChartVO> data = new ArrayList<>();
-        for (int page = 1; page <= 4; page++) {
+        // The four Top200 pages are independent; fetch them together and merge in page order.
+        List<Future<List<ChartVO>>> pages = new ArrayList<>();
+        for (int page = 1; page <= PAGE_COUNT; page++) {
             String url =
                     "https://www.genie.co.kr/chart/top200?ditc=D&rtm=Y&ymd=" + ymd + "&hh=" + hh + "&pg=" + page;
-            Document doc = fetchDocument(url);
-
-            for (Element row : doc.select("table.list-wrap tbody tr.list")) {
-                String songNumber = row.attr("songid");
-                String rankText = row.selectFirst("td.number") != null ? row.selectFirst("td.number").text() : "";
-                Integer rankValue = parseNumber(rankText);
-
-                Element titleEl = row.selectFirst("td.info a.title");
-                Element artistEl = row.selectFirst("td.info a.artist");
-                Element albumEl = row.selectFirst("td.info a.albumtitle");
-                Element artEl = row.selectFirst("td a.cover img");
-
-                String title = titleEl != null ? titleEl.text() : "";
-                String artist = artistEl != null ? artistEl.text() : "";
-                String albumName = albumEl != null ? albumEl.text() : "";
-                String albumArt = artEl != null ? artEl.attr("src") : "";
-                if (albumArt.startsWith("//")) {
-                    albumArt = "https:" + albumArt;
+            int rankOffset = (page - 1) * PAGE_SIZE;
+            // One entry per page, not per hour: the URL changes with ymd/hh, so validators only carry
+            // within the hour and the content comparison below covers the hour change.
+            String key = ChartType.GENIE_TOP200.getId() + "/pg" + page;
+            pages.add(pageExecutor.submit(() -> fetchPage(url, key, rankOffset)));
+        }
+
+        List<List<ChartVO>> pageRows = new ArrayList<>();
+        try {
+            for (Future<List<ChartVO>> page : pages) {
+                pageRows.add(page.get());
+            }
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            throw cause instanceof Exception ? (Exception) cause : ex;
+        } finally {
+            // Failed or abandoned (interrupted on load timeout): stop the other pages too, so they do
+            // not keep updating the conditional-GET state while the next load fetches the same keys.
+            if (pageRows.size() < pages.size()) {
+                for (Future<List<ChartVO>> page : pages) {
+                    page.cancel(true);
                 }
+            }
+        }
+
+        PreviousChart last = previous;
+        List<List<ChartVO>> lastPageRows = last.pageRows;
 
-                if (artistName != null && !artistName.isEmpty() && (artist == null || !artist.contains(artistName))) {
-                    continue;
+        // A new hour is a new URL, so its pages are always downloaded and parsed; keep the previous
+        // instance of any page whose rows came out the same, so the check below still sees it.
+        if (pageRows.size() == lastPageRows.size()) {
+            for (int i = 0; i < pageRows.size(); i++) {
+                if (pageRows.get(i) != lastPageRows.get(i) && pageRows.get(i).equals(lastPageRows.get(i))) {
+                    pageRows.set(i, lastPageRows.get(i));
                 }
+            }
+        }
 
-                String[] rankStatus = resolveRankStatus(row);
-
-                data.add(ChartVO.builder()
-                        .rank(rankValue != null ? rankValue : data.size() + 1)
-                        .artistName(artist)
-                        .title(title)
-                        .albumName(albumName)
-                        .albumArt(albumArt)
-                        .songNumber(songNumber)
-                        .rankStatus(rankStatus[0])
-                        .changedRank(Integer.parseInt(rankStatus[1]))
-                        .build());
+        // Every page came back unchanged (same instances): hand back the previous chart untouched.
+        if (last.chart != null && pageRows.size() == lastPageRows.size()) {
+            boolean unchanged = true;
+            for (int i = 0; i < pageRows.size(); i++) {
+                unchanged &= pageRows.get(i) == lastPageRows.get(i);
             }
+            if (unchanged) {
+                return last.chart;
+            }
+        }
+
+        List<ChartVO> data = new ArrayList<>();
+        for (List<ChartVO> rows : pageRows) {
+            data.addAll(rows);
         }
+        ChartRows chart = ChartRows.of(data);
+        previous = new PreviousChart(pageRows, chart);
+        return chart;
+    }
+
+    // Retried by UpstreamHttpClient; a page that still fails fails the whole refresh (the old chart stays).
+    private List<ChartVO> fetchPage(String url, String key, int rankOffset) throws IOException {
+        return chartRequest(url)
+                .getIfModified(key, response -> ChartRows.of(parseChartPage(response.parse(), rankOffset)))
+                .getValue();
+    }
 
+    List<ChartVO> parseChartPage(Document doc, int rankOffset) {
+        List<ChartVO> data = new ArrayList<>();
+        for (Element row : doc.select(CHART_ROWS)) {
+            Element numberEl = row.selectFirst(RANK_NUMBER);
+            int rankValue = parseNumber(numberEl != null ? numberEl.text() : "");
+
+            Element titleEl = row.selectFirst(TITLE);
+            Element artistEl = row.selectFirst(ARTIST);
+            Element albumEl = row.selectFirst(ALBUM);
+            Element artEl = row.selectFirst(ALBUM_ART);
+
+            String albumArt = artEl != null ? artEl.attr("src") : "";
+            if (albumArt.startsWith("//")) {
+                albumArt = "https:" + albumArt;
+            }
+
+            ChartVO.ChartVOBuilder chart = ChartVO.builder()
+                    .rank(rankValue >= 0 ? rankValue : rankOffset + data.size() + 1)
+                    .artistName(artistEl != null ? artistEl.text() : "")
+                    .title(titleEl != null ? titleEl.text() : "")
+                    .albumName(albumEl != null ? albumEl.text() : "")
+                    .albumArt(albumArt)
+                    .songNumber(row.attr("songid"));
+            setRankStatus(chart, row);
+            data.add(chart.build());
+        }
         return data;
     }
 
-    private Document fetchDocument(String url) throws Exception {
-        return Jsoup.connect(url)
+    @PreDestroy
+    public void shutdown() {
+        pageExecutor.shutdownNow();
+    }
+
+    private UpstreamRequest chartRequest(String url) {
+        return upstreamHttpClient.request(url)
                 .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
                 .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
                 .header("Accept-Language", "ko-KR,ko;q=0.9,en-US;q=0.8,en;q=0.7")
                 .header("Cache-Control", "no-cache")
                 .header("Pragma", "no-cache")
-                .referrer("https://www.genie.co.kr/")
-                .get();
-    }
-
-    // Get tag value
-    private List<String> getTextsOfElements(Document doc, String selector) {
-        return doc.select(selector).stream()
-                .map(Element::text)
-                .collect(Collectors.toList());
+                .referrer("https://www.genie.co.kr/");
     }
 
-    private String[] resolveRankStatus(Element row) {
-        Element statusEl = row.selectFirst("td.number span.rank span.rank-up, td.number span.rank span.rank-down, td.number span.rank span.rank-none, td.number span.rank span.rank-new, td.number span.rank span.rank-re");
-        if (statusEl == null) {
-            return new String[] {"static", "0"};
-        }
-
-        String className = statusEl.className();
-        String text = statusEl.text();
+    private void setRankStatus(ChartVO.ChartVOBuilder chart, Element row) {
+        Element statusEl = row.selectFirst(RANK_STATUS);
+        String className = statusEl != null ? statusEl.className() : "";
 
         if (className.contains("rank-up")) {
-            return new String[] {"up", String.valueOf(parseNumber(text))};
-        }
-        if (className.contains("rank-down")) {
-            return new String[] {"down", String.valueOf(parseNumber(text))};
-        }
-        if (className.contains("rank-new") || className.contains("rank-re")) {
-            return new String[] {"new", "0"};
+            chart.rankStatus("up").changedRank(Math.max(parseNumber(statusEl.text()), 0));
+        } else if (className.contains("rank-down")) {
+            chart.rankStatus("down").changedRank(Math.max(parseNumber(statusEl.text()), 0));
+        } else if (className.contains("rank-new") || className.contains("rank-re")) {
+            chart.rankStatus("new").changedRank(0);
+        } else {
+            chart.rankStatus("static").changedRank(0);
         }
-        return new String[] {"static", "0"};
     }
 
-    private Integer parseNumber(String text) {
-        if (text == null) return null;
-        Matcher m = Pattern.compile("(\\d+)").matcher(text);
-        if (m.find()) {
-            return Integer.parseInt(m.group(1));
+    // First run of digits in the text, or -1 when there is none
+    private int parseNumber(String text) {
+        int value = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+            } else if (value >= 0) {
+                break;
+            }
         }
-        return null;
+        return value;
     }
 
-    // Get tag attribute values
-    private List<String> getAttrsOfElements(Document doc, String selector, String attr) {
-        return doc.select(selector).stream()
-                .map(element -> element.attr(attr))
-                .collect(Collectors.toList());
+    // Find AlbumNames By ArtistName
+    public List<DetailVO> getAlbums(String artistName, int page) throws Exception {
+        return albumLookup(artistName, page).get();
     }
 
-    // Find AlbumNames By ArtistName
-    public List<DetailVO> getAlbums(String artistName) throws Exception {
+    // page: 1-based search result page
+    public UpstreamLookup<List<DetailVO>> albumLookup(String artistName, int page) {
         String url = "https://www.genie.co.kr/search/searchAlbum?query=" +
-                artistName;
-        Document doc = Jsoup.connect(url).userAgent("Chrome").get();
+                UpstreamHttpClient.encode(artistName) +
+                "&page=" + page;
+        return new UpstreamLookup<>(upstreamHttpClient.request(url).userAgent("Chrome"),
+                response -> parseAlbums(response.parse()));
+    }
+
+    private static List<DetailVO> parseAlbums(Document doc) {
         List<DetailVO> data = new ArrayList<>();
         for (Element element : doc.select("dt > a")) {
-            Matcher m = Pattern.compile("fnViewAlbumLayer\\('(.*?)'\\)").matcher(element.attr("onclick"));
+            Matcher m = ALBUM_ID.matcher(element.attr("onclick"));
             while (m.find()) {
                 data.add(DetailVO.builder()
                         .title(element.text())
@@ -149,15 +261,33 @@ public class GenieChartService {
 
     // Find Songs By AlbumNumber
     public List<DetailVO> getSongLists(String albumNumber) throws Exception {
-        String url = "https://www.genie.co.kr/detail/albumInfo?axnm=" + albumNumber;
-        Document doc = Jsoup.connect(url).userAgent("Chrome").get();
+        return songListLookup(albumNumber).get();
+    }
+
+    public UpstreamLookup<List<DetailVO>> songListLookup(String albumNumber) {
+        String url = "https://www.genie.co.kr/detail/albumInfo?axnm=" + UpstreamHttpClient.encode(albumNumber);
+        return new UpstreamLookup<>(upstreamHttpClient.request(url).userAgent("Chrome"),
+                response -> parseSongLists(response.parse()));
+    }
+
+    private static List<DetailVO> parseSongLists(Document doc) {
         List<DetailVO> data = new ArrayList<>();
         for (Element element : doc.select("tbody > .list")) {
             data.add(DetailVO.builder()
-                    .title(element.select(".title").text())
+                    .title(element.select(SONG_TITLE).text())
                     .number(element.attr("songid"))
                     .build());
         }
         return data;
     }
+
+    private static final class PreviousChart {
+        private final List<List<ChartVO>> pageRows;
+        private final List<ChartVO> chart;
+
+        private PreviousChart(List<List<ChartVO>> pageRows, List<ChartVO> chart) {
+            this.pageRows = pageRows;
+            this.chart = chart;
+        }
+    }
 }
@@ -1,55 +1,89 @@
 package com.maxjang.chart.melon;
 
 import com.maxjang.chart.common.DetailVO;
-import com.maxjang.chart.common.ChartVO;
+import com.maxjang.chart.common.LookupCache;
+import com.maxjang.chart.common.LookupExecutor;
+import com.maxjang.chart.common.ChartResponses;
 import com.maxjang.chart.common.ResponseFormat;
+import com.maxjang.chart.common.SearchCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/melon")
 public class MelonChartController {
     private final MelonChartService melonChartService;
+    private final LookupExecutor lookupExecutor;
+    private final LookupCache lookupCache;
 
     @Autowired
-    public MelonChartController(MelonChartService melonChartService) {
+    public MelonChartController(MelonChartService melonChartService, LookupExecutor lookupExecutor, LookupCache lookupCache) {
         this.melonChartService = melonChartService;
+        this.lookupExecutor = lookupExecutor;
+        this.lookupCache = lookupCache;
     }
 
     @GetMapping("/chart")
-    public ResponseFormat<ChartVO> getMelonChartTop100() throws Exception {
-        return new ResponseFormat<>(melonChartService.getMelonChartTop100(null));
+    public ResponseEntity<?> getMelonChartTop100(
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(melonChartService.getMelonChartTop100Snapshot(at), null, request);
     }
 
     @GetMapping("/chart/{artistName}")
-    public ResponseFormat<ChartVO> getMelonChartTop100ByArtistName(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(melonChartService.getMelonChartTop100(artistName));
+    public ResponseEntity<?> getMelonChartTop100ByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(melonChartService.getMelonChartTop100Snapshot(at), artistName, request);
     }
 
     @GetMapping("/hot100/{chartType}/chart")
-    public ResponseFormat<ChartVO> getMelonHot100(@PathVariable String chartType) throws Exception {
-        return new ResponseFormat<>(melonChartService.getMelonHot100(chartType, null));
+    public ResponseEntity<?> getMelonHot100(
+            @PathVariable String chartType,
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(melonChartService.getMelonHot100Snapshot(chartType, at), null, request);
     }
 
     @GetMapping("/hot100/{chartType}/chart/{artistName}")
-    public ResponseFormat<ChartVO> getMelonHot100ByArtistName(
+    public ResponseEntity<?> getMelonHot100ByArtistName(
             @PathVariable String chartType,
-            @PathVariable String artistName
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            WebRequest request
     ) throws Exception {
-        return new ResponseFormat<>(melonChartService.getMelonHot100(chartType, artistName));
+        return ChartResponses.chart(melonChartService.getMelonHot100Snapshot(chartType, at), artistName, request);
     }
 
     @GetMapping("/albums/{artistName}")
-    public ResponseFormat<DetailVO> getAlbums(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(melonChartService.getAlbums(artistName));
+    public CompletableFuture<ResponseFormat<DetailVO>> getAlbums(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String cursor
+    ) {
+        SearchCursor searchCursor = SearchCursor.parse(cursor, MelonChartService.ALBUM_PAGE_SIZE);
+        int page = searchCursor.getPage();
+        return lookupCache.getAlbums("melon", artistName, page, () -> lookupExecutor.submit("melon", () -> melonChartService.getAlbums(artistName, page)))
+                .thenApply(searchCursor::respond);
     }
 
     @GetMapping("/songs/{albumNumber}")
-    public ResponseFormat<DetailVO> getSongs(@PathVariable String albumNumber) throws Exception {
-        return new ResponseFormat<>(melonChartService.getSongLists(albumNumber));
+    public CompletableFuture<ResponseFormat<DetailVO>> getSongs(@PathVariable String albumNumber) {
+        return lookupCache.getSongLists("melon", albumNumber, () -> lookupExecutor.submit("melon", () -> melonChartService.getSongLists(albumNumber)))
+                .thenApply(ResponseFormat::new);
     }
 
 }
@@ -1,170 +1,219 @@
 package com.maxjang.chart.melon;
 
+import com.maxjang.chart.common.ChartRows;
+import com.maxjang.chart.common.ChartSnapshot;
+import com.maxjang.chart.common.ChartSnapshotCache;
+import com.maxjang.chart.common.ChartType;
 import com.maxjang.chart.common.DetailVO;
 import com.maxjang.chart.common.ChartVO;
-import org.jsoup.Jsoup;
+import com.maxjang.chart.common.UpstreamHttpClient;
+import com.maxjang.chart.common.UpstreamLookup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 public class MelonChartService {
-    private Document fetchDocument(String url) throws Exception {
+    // Parsed once instead of per row
+    private static final Evaluator CHART_ROWS = QueryParser.parse("tr[data-song-no]");
+    private static final Evaluator TITLE = QueryParser.parse(".rank01 a");
+    private static final Evaluator ARTISTS = QueryParser.parse(".rank02 a");
+    private static final Evaluator ARTIST_FALLBACK = QueryParser.parse(".rank02 span");
+    private static final Evaluator ALBUM = QueryParser.parse(".rank03 a");
+    private static final Evaluator ALBUM_ART = QueryParser.parse("a.image_typeAll img");
+    private static final Evaluator RANK_WRAP = QueryParser.parse(".rank_wrap");
+    private static final Evaluator RANK_ICON = QueryParser.parse(".bullet_icons");
+    private static final Evaluator RANK_UP = QueryParser.parse("span.up");
+    private static final Evaluator RANK_DOWN = QueryParser.parse("span.down");
+    public static final int ALBUM_PAGE_SIZE = 21; // the site's own album search page
+    private static final Pattern ALBUM_ID = Pattern.compile("goAlbumDetail\\('(.*?)'\\)");
+    private static final Pattern SONG_ID = Pattern.compile(",(.*?)\\)");
+
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final UpstreamHttpClient upstreamHttpClient;
+
+    @Autowired
+    public MelonChartService(ChartSnapshotCache chartSnapshotCache, UpstreamHttpClient upstreamHttpClient) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.upstreamHttpClient = upstreamHttpClient;
+    }
+
+    @PostConstruct
+    public void registerCharts() {
+        chartSnapshotCache.register(ChartType.MELON_TOP100,
+                () -> fetchChart(ChartType.MELON_TOP100, "https://www.melon.com/chart/index.htm"));
+        chartSnapshotCache.register(ChartType.MELON_HOT100_D100,
+                () -> fetchChart(ChartType.MELON_HOT100_D100, "https://www.melon.com/chart/hot100/index.htm?chartType=D100"));
+        chartSnapshotCache.register(ChartType.MELON_HOT100_D30,
+                () -> fetchChart(ChartType.MELON_HOT100_D30, "https://www.melon.com/chart/hot100/index.htm?chartType=D30"));
+    }
+
+    // Unchanged page => the previous List instance, which the snapshot cache keeps as is.
+    private List<ChartVO> fetchChart(ChartType type, String url) throws Exception {
         // Melon may return different markup depending on headers; provide a stable UA + basic headers.
-        return Jsoup.connect(url)
+        return upstreamHttpClient.request(url)
                 .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36")
                 .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
                 .header("Accept-Language", "ko-KR,ko;q=0.9,en-US;q=0.8,en;q=0.7")
                 .referrer("https://www.melon.com/")
-                .get();
+                .getIfModified(type.getId(), response -> ChartRows.of(parseChartRows(response.parse())))
+                .getValue();
     }
 
-    private List<ChartVO> parseChartRows(Document doc, String artistName) {
+    List<ChartVO> parseChartRows(Document doc) {
         List<ChartVO> data = new ArrayList<>();
 
         int chartRank = 0;
-        for (Element row : doc.select("tr[data-song-no]")) {
+        for (Element row : doc.select(CHART_ROWS)) {
             chartRank += 1;
             String songNumber = row.attr("data-song-no");
 
-            Element titleEl = row.selectFirst(".rank01 a");
-            Element albumEl = row.selectFirst(".rank03 a");
-            Element artEl = row.selectFirst("a.image_typeAll img");
-            List<String> artistParts = row.select(".rank02 a").eachText();
-
+            Element titleEl = row.selectFirst(TITLE);
             if (titleEl == null) continue;
-            String title = titleEl.text();
+            Element albumEl = row.selectFirst(ALBUM);
+            Element artEl = row.selectFirst(ALBUM_ART);
+            List<String> artistParts = row.select(ARTISTS).eachText();
 
             String artistText;
-            if (artistParts != null && !artistParts.isEmpty()) {
+            if (!artistParts.isEmpty()) {
                 artistText = String.join(", ", artistParts);
             } else {
                 // Fallback selector for some markup variants
-                Element artistSpan = row.selectFirst(".rank02 span");
+                Element artistSpan = row.selectFirst(ARTIST_FALLBACK);
                 artistText = artistSpan != null ? artistSpan.text() : "";
             }
 
-            if (artistName != null && !artistName.isEmpty() && (artistText == null || !artistText.contains(artistName))) {
-                continue;
-            }
-
-            String albumName = albumEl != null ? albumEl.text() : "";
-            String albumArt = artEl != null ? artEl.attr("src") : "";
-            String[] rankStatus = resolveRankStatus(row);
-
-            data.add(ChartVO.builder()
+            ChartVO.ChartVOBuilder chart = ChartVO.builder()
                     .rank(chartRank)
                     .artistName(artistText)
-                    .title(title)
-                    .albumName(albumName)
-                    .albumArt(albumArt)
-                    .songNumber(songNumber)
-                    .rankStatus(rankStatus[0])
-                    .changedRank(Integer.parseInt(rankStatus[1]))
-                    .build());
+                    .title(titleEl.text())
+                    .albumName(albumEl != null ? albumEl.text() : "")
+                    .albumArt(artEl != null ? artEl.attr("src") : "")
+                    .songNumber(songNumber);
+            setRankStatus(chart, row);
+            data.add(chart.build());
         }
 
         return data;
     }
 
-    private String[] resolveRankStatus(Element row) {
-        Element rankWrap = row.selectFirst(".rank_wrap");
+    private void setRankStatus(ChartVO.ChartVOBuilder chart, Element row) {
+        Element rankWrap = row.selectFirst(RANK_WRAP);
         if (rankWrap == null) {
-            return new String[] {"static", "0"};
+            chart.rankStatus("static").changedRank(0);
+            return;
         }
-        Element icon = rankWrap.selectFirst(".bullet_icons");
+        Element icon = rankWrap.selectFirst(RANK_ICON);
         String iconClass = icon != null ? icon.className() : "";
 
-        Element upValue = rankWrap.selectFirst("span.up");
-        Element downValue = rankWrap.selectFirst("span.down");
-        Element noneValue = rankWrap.selectFirst("span.none");
-
         if (iconClass.contains("rank_up")) {
-            return new String[] {"up", String.valueOf(parseDelta(upValue != null ? upValue.text() : ""))};
+            Element upValue = rankWrap.selectFirst(RANK_UP);
+            chart.rankStatus("up").changedRank(parseDelta(upValue != null ? upValue.text() : ""));
+            return;
         }
         if (iconClass.contains("rank_down")) {
-            return new String[] {"down", String.valueOf(parseDelta(downValue != null ? downValue.text() : ""))};
+            Element downValue = rankWrap.selectFirst(RANK_DOWN);
+            chart.rankStatus("down").changedRank(parseDelta(downValue != null ? downValue.text() : ""));
+            return;
         }
         if (iconClass.contains("rank_new") || iconClass.contains("rank_re")) {
-            return new String[] {"new", "0"};
+            chart.rankStatus("new").changedRank(0);
+            return;
         }
         if (iconClass.contains("rank_static")) {
-            return new String[] {"static", "0"};
+            chart.rankStatus("static").changedRank(0);
+            return;
         }
 
         String text = rankWrap.text();
         if (text.contains("상승")) {
-            return new String[] {"up", String.valueOf(parseDelta(text))};
-        }
-        if (text.contains("하락")) {
-            return new String[] {"down", String.valueOf(parseDelta(text))};
-        }
-        if (text.contains("순위 동일")) {
-            return new String[] {"static", "0"};
-        }
-        if (noneValue != null) {
-            return new String[] {"static", "0"};
+            chart.rankStatus("up").changedRank(parseDelta(text));
+        } else if (text.contains("하락")) {
+            chart.rankStatus("down").changedRank(parseDelta(text));
+        } else {
+            chart.rankStatus("static").changedRank(0);
         }
-
-        return new String[] {"static", "0"};
     }
 
+    // First run of digits in the text, or 0
     private int parseDelta(String text) {
-        Matcher m = Pattern.compile("(\\d+)").matcher(text);
-        if (m.find()) {
-            return Integer.parseInt(m.group(1));
+        int value = 0;
+        boolean inDigits = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                inDigits = true;
+            } else if (inDigits) {
+                break;
+            }
         }
-        return 0;
+        return value;
     }
 
     // Get TOP100 Chart
     public List<ChartVO> getMelonChartTop100(String artistName) throws Exception {
-        String url = "https://www.melon.com/chart/index.htm";
-        Document doc = fetchDocument(url);
-        return parseChartRows(doc, artistName);
+        return getMelonChartTop100Snapshot().filterByArtist(artistName);
+    }
+
+    public ChartSnapshot getMelonChartTop100Snapshot() throws Exception {
+        return getMelonChartTop100Snapshot(null);
+    }
+
+    // at: the chart as recorded at that time (see ChartHistoryStore)
+    public ChartSnapshot getMelonChartTop100Snapshot(String at) throws Exception {
+        return chartSnapshotCache.get(ChartType.MELON_TOP100, at);
     }
 
     // Get HOT100 Chart (D100 = 발매100일, D30 = 발매30일)
     public List<ChartVO> getMelonHot100(String chartType, String artistName) throws Exception {
-        String safeType = "D100";
-        if (chartType != null && chartType.equalsIgnoreCase("D30")) {
-            safeType = "D30";
-        }
+        return getMelonHot100Snapshot(chartType).filterByArtist(artistName);
+    }
 
-        String url = "https://www.melon.com/chart/hot100/index.htm?chartType=" + safeType;
-        Document doc = fetchDocument(url);
-        return parseChartRows(doc, artistName);
+    public ChartSnapshot getMelonHot100Snapshot(String chartType) throws Exception {
+        return getMelonHot100Snapshot(chartType, null);
     }
 
-    // Get tag value
-    private List<String> getTextsOfElements(Document doc, String selector) {
-        return doc.select(selector).stream()
-                .map(Element::text)
-                .collect(Collectors.toList());
+    public ChartSnapshot getMelonHot100Snapshot(String chartType, String at) throws Exception {
+        return chartSnapshotCache.get(hot100Type(chartType), at);
     }
 
-    // Get tag attribute values
-    private List<String> getAttrsOfElements(Document doc, String selector, String attr) {
-        return doc.select(selector).stream()
-                .map(element -> element.attr(attr))
-                .collect(Collectors.toList());
+    // D30 or D100 (the default for anything else)
+    public static ChartType hot100Type(String chartType) {
+        if (chartType != null && chartType.equalsIgnoreCase("D30")) {
+            return ChartType.MELON_HOT100_D30;
+        }
+        return ChartType.MELON_HOT100_D100;
     }
 
     // Find AlbumNames By ArtistName
-    public List<DetailVO> getAlbums(String artistName) throws Exception {
+    public List<DetailVO> getAlbums(String artistName, int page) throws Exception {
+        return albumLookup(artistName, page).get();
+    }
+
+    // page: 1-based search result page
+    public UpstreamLookup<List<DetailVO>> albumLookup(String artistName, int page) {
         String url = "https://www.melon.com/search/album/index.htm?q=" +
-                artistName +
-                "&section=&searchGnbYn=Y&kkoSpl=Y&kkoDpType=&linkOrText=T&ipath=srch_form";
-        Document doc = Jsoup.connect(url).userAgent("Chrome").get();
+                UpstreamHttpClient.encode(artistName) +
+                "&section=&searchGnbYn=Y&kkoSpl=Y&kkoDpType=&linkOrText=T&ipath=srch_form" +
+                "&startIndex=" + ((page - 1) * ALBUM_PAGE_SIZE + 1) + "&pageSize=" + ALBUM_PAGE_SIZE;
+        return new UpstreamLookup<>(upstreamHttpClient.request(url).userAgent("Chrome"),
+                response -> parseAlbums(response.parse()));
+    }
+
+    private static List<DetailVO> parseAlbums(Document doc) {
         List<DetailVO> data = new ArrayList<>();
         for (Element element : doc.select("dt > a")) {
-            Matcher m = Pattern.compile("goAlbumDetail\\('(.*?)'\\)").matcher(element.attr("href"));
+            Matcher m = ALBUM_ID.matcher(element.attr("href"));
             while (m.find()) {
                 data.add(DetailVO.builder()
                         .title(element.text())
@@ -177,11 +226,19 @@ public class MelonChartService {
 
     // Find Songs By AlbumNumber
     public List<DetailVO> getSongLists(String albumNumber) throws Exception {
-        String url = "https://www.melon.com/album/detail.htm?albumId=" + albumNumber;
-        Document doc = Jsoup.connect(url).userAgent("Chrome").get();
+        return songListLookup(albumNumber).get();
+    }
+
+    public UpstreamLookup<List<DetailVO>> songListLookup(String albumNumber) {
+        String url = "https://www.melon.com/album/detail.htm?albumId=" + UpstreamHttpClient.encode(albumNumber);
+        return new UpstreamLookup<>(upstreamHttpClient.request(url).userAgent("Chrome"),
+                response -> parseSongLists(response.parse()));
+    }
+
+    private static List<DetailVO> parseSongLists(Document doc) {
         List<DetailVO> data = new ArrayList<>();
         for (Element element : doc.select(".wrap_song_info .ellipsis > span > a")) {
-            Matcher m = Pattern.compile(",(.*?)\\)").matcher(element.attr("href"));
+            Matcher m = SONG_ID.matcher(element.attr("href"));
             while (m.find()) {
                 data.add(DetailVO.builder()
                         .title(element.text())
@@ -0,0 +1,43 @@
+package com.maxjang.chart.reactive;
+
+import com.maxjang.chart.common.ChartDiffVO;
+import com.maxjang.chart.common.ChartType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/changes")
+@Profile("reactive")
+public class ReactiveChangeController {
+
+    private final ReactiveChartChanges reactiveChartChanges;
+
+    @Autowired
+    public ReactiveChangeController(ReactiveChartChanges reactiveChartChanges) {
+        this.reactiveChartChanges = reactiveChartChanges;
+    }
+
+    // As ChartChangeController
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChartDiffVO>> getChanges(
+            @RequestParam(required = false) String providers,
+            @RequestParam(required = false) String artistName
+    ) {
+        List<ChartType> types = ChartType.resolve(providers);
+        if (types.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown providers: " + providers);
+        }
+        return reactiveChartChanges.subscribe(types, artistName);
+    }
+}
@@ -0,0 +1,105 @@
+package com.maxjang.chart.reactive;
+
+import com.maxjang.chart.common.ChartDiff;
+import com.maxjang.chart.common.ChartDiffVO;
+import com.maxjang.chart.common.ChartSnapshot;
+import com.maxjang.chart.common.ChartSnapshotCache;
+import com.maxjang.chart.common.ChartType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * The change stream of {@code ChartChangeBroadcaster} as a {@link Flux} for the reactive profile:
+ * the same events, keep-alives and limits. Each subscriber buffers a bounded number of changes; one
+ * that stops reading past that is dropped and reconnects on its own, like a failed SSE connection.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveChartChanges {
+
+    private static final Duration KEEP_ALIVE = Duration.ofSeconds(30);
+    private static final Duration RECONNECT = Duration.ofSeconds(10);
+    private static final int BUFFERED_CHANGES = 64;
+
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final DirectProcessor<ChartDiffVO> diffs = DirectProcessor.create();
+    private final FluxSink<ChartDiffVO> sink = diffs.sink();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    // Diffs are computed off the refresh thread, one chart at a time.
+    private final Scheduler sender = Schedulers.newSingle("chart-changes");
+
+    @Autowired
+    public ReactiveChartChanges(
+            ChartSnapshotCache chartSnapshotCache,
+            @Value("${chart.changes.timeout:PT30M}") Duration timeout,
+            @Value("${chart.changes.max-subscribers:500}") int maxSubscribers
+    ) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    @PostConstruct
+    public void start() {
+        chartSnapshotCache.addListener(this::onSnapshot);
+    }
+
+    public Flux<ServerSentEvent<ChartDiffVO>> subscribe(List<ChartType> types, String artistName) {
+        Set<String> charts = types.stream().map(ChartType::getId).collect(Collectors.toSet());
+        return Flux.defer(() -> {
+            if (subscribers.incrementAndGet() > maxSubscribers) {
+                subscribers.decrementAndGet();
+                return Flux.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change subscribers"));
+            }
+
+            Flux<ServerSentEvent<ChartDiffVO>> changes = diffs
+                    .filter(diff -> charts.contains(diff.getChart()))
+                    .map(diff -> ChartDiff.filterByArtist(diff, artistName))
+                    .filter(diff -> !diff.getChanges().isEmpty())
+                    .map(diff -> ServerSentEvent.builder(diff)
+                            .event("change")
+                            .id(diff.getChart() + "@" + diff.getVersion())
+                            .build())
+                    .onBackpressureBuffer(BUFFERED_CHANGES);
+            Flux<ServerSentEvent<ChartDiffVO>> keepAlive = Flux.interval(KEEP_ALIVE)
+                    .map(tick -> ServerSentEvent.<ChartDiffVO>builder().comment("keep-alive").build());
+            return Flux.just(ServerSentEvent.<ChartDiffVO>builder().retry(RECONNECT).comment("subscribed").build())
+                    .concatWith(Flux.merge(changes, keepAlive))
+                    .take(timeout)
+                    .doFinally(signal -> subscribers.decrementAndGet());
+        });
+    }
+
+    private void onSnapshot(ChartSnapshot previous, ChartSnapshot snapshot) {
+        if (previous == null || subscribers.get() == 0) {
+            return;
+        }
+        sender.schedule(() -> sink.next(ChartDiff.between(previous, snapshot)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sink.complete();
+        sender.dispose();
+    }
+}
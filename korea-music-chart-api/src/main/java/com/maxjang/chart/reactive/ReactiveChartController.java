@@ -0,0 +1,259 @@
+package com.maxjang.chart.reactive;
+
+import com.maxjang.chart.aggregate.AggregateChartService;
+import com.maxjang.chart.aggregate.ProviderChartVO;
+import com.maxjang.chart.common.ChartResponses;
+import com.maxjang.chart.common.ChartSnapshot;
+import com.maxjang.chart.common.ChartSnapshotCache;
+import com.maxjang.chart.common.ChartType;
+import com.maxjang.chart.common.ChartVO;
+import com.maxjang.chart.common.DetailVO;
+import com.maxjang.chart.common.LookupCache;
+import com.maxjang.chart.common.ReactiveUpstreamClient;
+import com.maxjang.chart.common.ResponseFormat;
+import com.maxjang.chart.common.SearchCursor;
+import com.maxjang.chart.common.UpstreamLookup;
+import com.maxjang.chart.discography.AlbumTracksVO;
+import com.maxjang.chart.discography.DiscographyService;
+import com.maxjang.chart.melon.MelonChartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The chart API of the provider controllers (same URLs, parameters and bodies) for the reactive
+ * profile. Charts come from the snapshot cache without blocking, live lookups go through
+ * {@link ReactiveUpstreamClient}, and an unfiltered chart can be streamed row by row as
+ * {@code application/stream+json}, at the pace the client reads it.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveChartController {
+
+    private static final String CHART_PROVIDERS = "melon|genie|bugs|flo|vibe";
+    private static final String LOOKUP_PROVIDERS = "melon|genie|bugs|vibe";
+
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final ReactiveUpstreamClient reactiveUpstreamClient;
+    private final LookupCache lookupCache;
+    private final DiscographyService discographyService;
+    private final AggregateChartService aggregateChartService;
+
+    @Autowired
+    public ReactiveChartController(
+            ChartSnapshotCache chartSnapshotCache,
+            ReactiveUpstreamClient reactiveUpstreamClient,
+            LookupCache lookupCache,
+            DiscographyService discographyService,
+            AggregateChartService aggregateChartService
+    ) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.reactiveUpstreamClient = reactiveUpstreamClient;
+        this.lookupCache = lookupCache;
+        this.discographyService = discographyService;
+        this.aggregateChartService = aggregateChartService;
+    }
+
+    @GetMapping("/{provider:" + CHART_PROVIDERS + "}/chart")
+    public Mono<ResponseEntity<?>> getChart(
+            @PathVariable String provider,
+            @RequestParam(required = false) String at,
+            @RequestHeader HttpHeaders headers
+    ) {
+        return snapshot(mainChart(provider), at).map(snapshot -> ChartResponses.chart(snapshot, null, headers));
+    }
+
+    @GetMapping(value = "/{provider:" + CHART_PROVIDERS + "}/chart", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<ChartVO> streamChart(
+            @PathVariable String provider,
+            @RequestParam(required = false) String at
+    ) {
+        return rows(mainChart(provider), at);
+    }
+
+    @GetMapping("/{provider:" + CHART_PROVIDERS + "}/chart/{artistName}")
+    public Mono<ResponseEntity<?>> getChartByArtistName(
+            @PathVariable String provider,
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            @RequestHeader HttpHeaders headers
+    ) {
+        return snapshot(mainChart(provider), at).map(snapshot -> ChartResponses.chart(snapshot, artistName, headers));
+    }
+
+    // Bugs has always answered this one with a bare JSON array.
+    @GetMapping("/bugs/chart/{artistName}")
+    public Mono<ResponseEntity<List<ChartVO>>> getBugsChartByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            @RequestHeader HttpHeaders headers
+    ) {
+        return snapshot(ChartType.BUGS_TOP100, at).map(snapshot -> ChartResponses.chartList(snapshot, artistName, headers));
+    }
+
+    @GetMapping("/melon/hot100/{chartType}/chart")
+    public Mono<ResponseEntity<?>> getMelonHot100(
+            @PathVariable String chartType,
+            @RequestParam(required = false) String at,
+            @RequestHeader HttpHeaders headers
+    ) {
+        return snapshot(MelonChartService.hot100Type(chartType), at).map(snapshot -> ChartResponses.chart(snapshot, null, headers));
+    }
+
+    @GetMapping(value = "/melon/hot100/{chartType}/chart", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<ChartVO> streamMelonHot100(
+            @PathVariable String chartType,
+            @RequestParam(required = false) String at
+    ) {
+        return rows(MelonChartService.hot100Type(chartType), at);
+    }
+
+    @GetMapping("/melon/hot100/{chartType}/chart/{artistName}")
+    public Mono<ResponseEntity<?>> getMelonHot100ByArtistName(
+            @PathVariable String chartType,
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            @RequestHeader HttpHeaders headers
+    ) {
+        return snapshot(MelonChartService.hot100Type(chartType), at).map(snapshot -> ChartResponses.chart(snapshot, artistName, headers));
+    }
+
+    @GetMapping("/vibe/chart/today")
+    public Mono<ResponseEntity<?>> getVibeChartTodayTop300(
+            @RequestParam(required = false) String at,
+            @RequestHeader HttpHeaders headers
+    ) {
+        return snapshot(ChartType.VIBE_TODAY_TOP300, at).map(snapshot -> ChartResponses.chart(snapshot, null, headers));
+    }
+
+    @GetMapping(value = "/vibe/chart/today", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<ChartVO> streamVibeChartTodayTop300(@RequestParam(required = false) String at) {
+        return rows(ChartType.VIBE_TODAY_TOP300, at);
+    }
+
+    @GetMapping("/vibe/chart/today/{artistName}")
+    public Mono<ResponseEntity<?>> getVibeChartTodayTop300ByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            @RequestHeader HttpHeaders headers
+    ) {
+        return snapshot(ChartType.VIBE_TODAY_TOP300, at).map(snapshot -> ChartResponses.chart(snapshot, artistName, headers));
+    }
+
+    @GetMapping("/{provider:melon|genie|vibe}/albums/{artistName}")
+    public Mono<ResponseFormat<DetailVO>> getAlbums(
+            @PathVariable String provider,
+            @PathVariable String artistName,
+            @RequestParam(required = false) String cursor
+    ) {
+        SearchCursor searchCursor = SearchCursor.parse(cursor, discographyService.albumPageSize(provider));
+        return Mono.fromFuture(albumPage(provider, artistName, searchCursor).thenApply(searchCursor::respond));
+    }
+
+    @GetMapping("/{provider:melon|genie|vibe}/songs/{albumNumber}")
+    public Mono<ResponseFormat<DetailVO>> getSongs(@PathVariable String provider, @PathVariable String albumNumber) {
+        return cached(lookupCache.getSongLists(provider, albumNumber, () -> fetch(discographyService.songListLookup(provider, albumNumber))));
+    }
+
+    @GetMapping("/bugs/album/{artistName}")
+    public Mono<ResponseFormat<DetailVO>> getBugsAlbums(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String cursor
+    ) {
+        return getAlbums("bugs", artistName, cursor);
+    }
+
+    @GetMapping("/bugs/song/{albumNumber}")
+    public Mono<ResponseFormat<DetailVO>> getBugsSongs(@PathVariable String albumNumber) {
+        return cached(lookupCache.getSongLists("bugs", albumNumber, () -> fetch(discographyService.songListLookup("bugs", albumNumber))));
+    }
+
+    @PostMapping("/{provider:" + LOOKUP_PROVIDERS + "}/songs:batch")
+    public Mono<ResponseFormat<AlbumTracksVO>> getSongsBatch(@PathVariable String provider, @RequestBody List<String> albumNumbers) {
+        return Mono.fromCallable(() -> discographyService.batchAlbums(albumNumbers))
+                .flatMap(albums -> Mono.fromFuture(discographyService.getSongLists(albums, number -> songLists(provider, number))))
+                .map(ResponseFormat::new);
+    }
+
+    @GetMapping("/{provider:" + LOOKUP_PROVIDERS + "}/discography/{artistName}")
+    public Mono<ResponseFormat<AlbumTracksVO>> getDiscography(
+            @PathVariable String provider,
+            @PathVariable String artistName,
+            @RequestParam(required = false) String cursor
+    ) {
+        SearchCursor searchCursor = SearchCursor.parse(cursor, discographyService.albumPageSize(provider));
+        return Mono.fromFuture(albumPage(provider, artistName, searchCursor)
+                .thenCompose(fetched -> discographyService.getSongLists(searchCursor.albums(fetched), number -> songLists(provider, number))
+                        .thenApply(tracks -> new ResponseFormat<>(tracks, searchCursor.next(fetched)))));
+    }
+
+    // Already non-blocking: every chart from the snapshot cache, each with the same deadline and its own status.
+    @GetMapping("/charts/{artistName}")
+    public Mono<ResponseFormat<ProviderChartVO>> getChartsByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String providers
+    ) {
+        return Mono.fromFuture(aggregateChartService.getCharts(artistName, providers).thenApply(ResponseFormat::new));
+    }
+
+    private CompletableFuture<List<DetailVO>> albumPage(String provider, String artistName, SearchCursor searchCursor) {
+        int page = searchCursor.getPage();
+        return lookupCache.getAlbums(provider, artistName, page, () -> fetch(discographyService.albumLookup(provider, artistName, page)));
+    }
+
+    private CompletableFuture<List<DetailVO>> songLists(String provider, String albumNumber) {
+        return lookupCache.getSongLists(provider, albumNumber, () -> fetch(discographyService.songListLookup(provider, albumNumber)));
+    }
+
+    private CompletableFuture<List<DetailVO>> fetch(UpstreamLookup<List<DetailVO>> lookup) {
+        return reactiveUpstreamClient.get(lookup).toFuture();
+    }
+
+    // thenApply gives each request its own future, so a client that goes away cannot cancel the shared fetch.
+    private static Mono<ResponseFormat<DetailVO>> cached(CompletableFuture<List<DetailVO>> rows) {
+        return Mono.fromFuture(rows.thenApply(ResponseFormat::new));
+    }
+
+    private Mono<ChartSnapshot> snapshot(ChartType type, String at) {
+        if (at == null || at.trim().isEmpty()) {
+            return Mono.defer(() -> Mono.fromFuture(chartSnapshotCache.getAsync(type)));
+        }
+        // Past charts are read from the history files.
+        return Mono.fromCallable(() -> chartSnapshotCache.get(type, at)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Rows are built from the compact snapshot one at a time, as the client asks for them.
+    private Flux<ChartVO> rows(ChartType type, String at) {
+        return snapshot(type, at).flatMapIterable(ChartSnapshot::getRows);
+    }
+
+    private static ChartType mainChart(String provider) {
+        switch (provider) {
+            case "melon":
+                return ChartType.MELON_TOP100;
+            case "genie":
+                return ChartType.GENIE_TOP200;
+            case "bugs":
+                return ChartType.BUGS_TOP100;
+            case "flo":
+                return ChartType.FLO_TOP100;
+            default:
+                return ChartType.VIBE_TOP100;
+        }
+    }
+}
@@ -1,51 +1,86 @@
 package com.maxjang.chart.vibe;
 
 import com.maxjang.chart.common.DetailVO;
-import com.maxjang.chart.common.ChartVO;
+import com.maxjang.chart.common.LookupCache;
+import com.maxjang.chart.common.LookupExecutor;
+import com.maxjang.chart.common.ChartResponses;
 import com.maxjang.chart.common.ResponseFormat;
+import com.maxjang.chart.common.SearchCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/vibe")
 public class VibeChartController {
     private final VibeChartService vibeChartService;
+    private final LookupExecutor lookupExecutor;
+    private final LookupCache lookupCache;
 
     @Autowired
-    public VibeChartController(VibeChartService vibeChartService) {
+    public VibeChartController(VibeChartService vibeChartService, LookupExecutor lookupExecutor, LookupCache lookupCache) {
         this.vibeChartService = vibeChartService;
+        this.lookupExecutor = lookupExecutor;
+        this.lookupCache = lookupCache;
     }
 
     @GetMapping("/chart")
-    public ResponseFormat<ChartVO> getVibeChartTop100() throws Exception {
-        return new ResponseFormat<>(vibeChartService.getVibeChartTop100(null));
+    public ResponseEntity<?> getVibeChartTop100(
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(vibeChartService.getVibeChartTop100Snapshot(at), null, request);
     }
 
     @GetMapping("/chart/{artistName}")
-    public ResponseFormat<ChartVO> getVibeChartTop100ByArtistName(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(vibeChartService.getVibeChartTop100(artistName));
+    public ResponseEntity<?> getVibeChartTop100ByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(vibeChartService.getVibeChartTop100Snapshot(at), artistName, request);
     }
 
     @GetMapping("/chart/today")
-    public ResponseFormat<ChartVO> getVibeChartTodayTop300() throws Exception {
-        return new ResponseFormat<>(vibeChartService.getVibeChartTodayTop300(null));
+    public ResponseEntity<?> getVibeChartTodayTop300(
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(vibeChartService.getVibeChartTodayTop300Snapshot(at), null, request);
     }
 
     @GetMapping("/chart/today/{artistName}")
-    public ResponseFormat<ChartVO> getVibeChartTodayTop300ByArtistName(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(vibeChartService.getVibeChartTodayTop300(artistName));
+    public ResponseEntity<?> getVibeChartTodayTop300ByArtistName(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String at,
+            WebRequest request
+    ) throws Exception {
+        return ChartResponses.chart(vibeChartService.getVibeChartTodayTop300Snapshot(at), artistName, request);
     }
 
     @GetMapping("/albums/{artistName}")
-    public ResponseFormat<DetailVO> getAlbums(@PathVariable String artistName) throws Exception {
-        return new ResponseFormat<>(vibeChartService.getAlbums(artistName));
+    public CompletableFuture<ResponseFormat<DetailVO>> getAlbums(
+            @PathVariable String artistName,
+            @RequestParam(required = false) String cursor
+    ) {
+        SearchCursor searchCursor = SearchCursor.parse(cursor, VibeChartService.ALBUM_PAGE_SIZE);
+        int page = searchCursor.getPage();
+        return lookupCache.getAlbums("vibe", artistName, page, () -> lookupExecutor.submit("vibe", () -> vibeChartService.getAlbums(artistName, page)))
+                .thenApply(searchCursor::respond);
     }
 
     @GetMapping("/songs/{albumNumber}")
-    public ResponseFormat<DetailVO> getSongs(@PathVariable String albumNumber) throws Exception {
-        return new ResponseFormat<>(vibeChartService.getSongLists(albumNumber));
+    public CompletableFuture<ResponseFormat<DetailVO>> getSongs(@PathVariable String albumNumber) {
+        return lookupCache.getSongLists("vibe", albumNumber, () -> lookupExecutor.submit("vibe", () -> vibeChartService.getSongLists(albumNumber)))
+                .thenApply(ResponseFormat::new);
     }
 }
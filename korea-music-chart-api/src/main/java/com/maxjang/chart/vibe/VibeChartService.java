@@ -1,28 +1,67 @@
 package com.maxjang.chart.vibe;
 
+import com.maxjang.chart.common.ChartRows;
+import com.maxjang.chart.common.ChartSnapshot;
+import com.maxjang.chart.common.ChartSnapshotCache;
+import com.maxjang.chart.common.ChartType;
 import com.maxjang.chart.common.DetailVO;
 import com.maxjang.chart.common.ChartVO;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
+import com.maxjang.chart.common.UpstreamHttpClient;
+import com.maxjang.chart.common.UpstreamLookup;
+import com.maxjang.chart.common.UpstreamResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import javax.annotation.PostConstruct;
+import java.io.IOException;
 import java.util.List;
 
 @Service
 public class VibeChartService {
+    public static final int ALBUM_PAGE_SIZE = 20;
+
+    private final ChartSnapshotCache chartSnapshotCache;
+    private final UpstreamHttpClient upstreamHttpClient;
+
+    @Autowired
+    public VibeChartService(ChartSnapshotCache chartSnapshotCache, UpstreamHttpClient upstreamHttpClient) {
+        this.chartSnapshotCache = chartSnapshotCache;
+        this.upstreamHttpClient = upstreamHttpClient;
+    }
+
+    @PostConstruct
+    public void registerCharts() {
+        chartSnapshotCache.register(ChartType.VIBE_TOP100, () -> getVibeChart(ChartType.VIBE_TOP100, "total", null, 100));
+        chartSnapshotCache.register(ChartType.VIBE_TODAY_TOP300, () -> getVibeChart(ChartType.VIBE_TODAY_TOP300, "total", "DAY", 300));
+    }
+
     // Get Top100 Chart (Total)
     public List<ChartVO> getVibeChartTop100(String artistName) throws Exception {
-        return getVibeChart(artistName, "total", null, 100);
+        return getVibeChartTop100Snapshot().filterByArtist(artistName);
+    }
+
+    public ChartSnapshot getVibeChartTop100Snapshot() throws Exception {
+        return getVibeChartTop100Snapshot(null);
+    }
+
+    public ChartSnapshot getVibeChartTop100Snapshot(String at) throws Exception {
+        return chartSnapshotCache.get(ChartType.VIBE_TOP100, at);
     }
 
     // Get Today Top100 Chart (up to 300)
     public List<ChartVO> getVibeChartTodayTop300(String artistName) throws Exception {
-        return getVibeChart(artistName, "total", "DAY", 300);
+        return getVibeChartTodayTop300Snapshot().filterByArtist(artistName);
+    }
+
+    public ChartSnapshot getVibeChartTodayTop300Snapshot() throws Exception {
+        return getVibeChartTodayTop300Snapshot(null);
+    }
+
+    public ChartSnapshot getVibeChartTodayTop300Snapshot(String at) throws Exception {
+        return chartSnapshotCache.get(ChartType.VIBE_TODAY_TOP300, at);
     }
 
-    private List<ChartVO> getVibeChart(String artistName, String chartKind, String chartType, int display) throws Exception {
+    private List<ChartVO> getVibeChart(ChartType type, String chartKind, String chartType, int display) throws Exception {
         StringBuilder url = new StringBuilder(
                 "https://apis.naver.com/vibeWeb/musicapiweb/vibe/v1/chart/track/" + chartKind
         );
@@ -31,66 +70,37 @@ public class VibeChartService {
             url.append("&chartType=").append(chartType);
         }
 
-        Document doc = Jsoup.connect(url.toString()).userAgent("Chrome").get();
-        List<ChartVO> data = new ArrayList<>();
-        for (Element element : doc.select("response > result > chart > items > tracks > track")) {
-            String[] rank = getRankStatus(element).split(",");
-            String searchedArtistName = element.select("album > artists > artist > artistName").text();
-            if (artistName == null || searchedArtistName.contains(artistName)) {
-                data.add(ChartVO.builder()
-                        .rank(Integer.parseInt(element.select("rank > currentRank").text()))
-                        .artistName(element.select("album > artists > artist > artistName").text())
-                        .title(element.select("trackTitle").text())
-                        .albumName(element.select("album > albumTitle").text())
-                        .albumArt(element.select("album > imageUrl").text())
-                        .songNumber(element.select("trackId").text())
-                        .rankStatus(rank[0])
-                        .changedRank(Integer.parseInt(rank[1]))
-                        .build());
-            }
-        }
-        return data;
+        return upstreamHttpClient.request(url.toString()).userAgent("Chrome")
+                .getIfModified(type.getId(), this::parseChart)
+                .getValue();
     }
 
-    // Get RankStatus
-    private String getRankStatus(Element element) {
-        String rankVariation = element.select("rank > rankVariation").text();
-        if (rankVariation.equals("0")) {
-            return "static,0";
-        } else if (rankVariation.contains("-")) {
-            return "down," + Math.abs(Integer.parseInt(rankVariation));
-        } else {
-            return "up," + rankVariation;
-        }
+    private List<ChartVO> parseChart(UpstreamResponse response) throws IOException {
+        return ChartRows.of(VibeXmlReader.readChart(response.body(), response.charset()));
     }
 
     // Find AlbumNames By ArtistName
-    public List<DetailVO> getAlbums(String artistName) throws Exception {
+    public List<DetailVO> getAlbums(String artistName, int page) throws Exception {
+        return albumLookup(artistName, page).get();
+    }
+
+    // page: 1-based, ALBUM_PAGE_SIZE albums each
+    public UpstreamLookup<List<DetailVO>> albumLookup(String artistName, int page) {
         String url = "https://apis.naver.com/vibeWeb/musicapiweb/v3/search/album?query="
-                + artistName
-                + "&start=1&display=100&sort=RELEVANCE";
-        Document doc = Jsoup.connect(url).userAgent("Chrome").get();
-        List<DetailVO> data = new ArrayList<>();
-        for (Element element : doc.select("response > result > albums > album")) {
-            data.add(DetailVO.builder()
-                    .title(element.select("albumTitle").text())
-                    .number(element.select("albumId").text())
-                    .build());
-        }
-        return data;
+                + UpstreamHttpClient.encode(artistName)
+                + "&start=" + ((page - 1) * ALBUM_PAGE_SIZE + 1) + "&display=" + ALBUM_PAGE_SIZE + "&sort=RELEVANCE";
+        return new UpstreamLookup<>(upstreamHttpClient.request(url).userAgent("Chrome"),
+                response -> VibeXmlReader.readAlbums(response.body(), response.charset()));
     }
 
     // Find Songs By AlbumNumber
     public List<DetailVO> getSongLists(String albumNumber) throws Exception {
-        String url = "https://apis.naver.com/vibeWeb/musicapiweb/album/" + albumNumber + "/tracks";
-        Document doc = Jsoup.connect(url).userAgent("Chrome").get();
-        List<DetailVO> data = new ArrayList<>();
-        for (Element element : doc.select("response > result > tracks > track")) {
-            data.add(DetailVO.builder()
-                    .title(element.select("trackTitle").text())
-                    .number(element.select("trackId").text())
-                    .build());
-        }
-        return data;
+        return songListLookup(albumNumber).get();
+    }
+
+    public UpstreamLookup<List<DetailVO>> songListLookup(String albumNumber) {
+        String url = "https://apis.naver.com/vibeWeb/musicapiweb/album/" + UpstreamHttpClient.encode(albumNumber) + "/tracks";
+        return new UpstreamLookup<>(upstreamHttpClient.request(url).userAgent("Chrome"),
+                response -> VibeXmlReader.readAlbumTracks(response.body(), response.charset()));
     }
 }
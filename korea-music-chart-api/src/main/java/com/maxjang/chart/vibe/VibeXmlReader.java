@@ -0,0 +1,290 @@
+package com.maxjang.chart.vibe;
+
+import com.maxjang.chart.common.ChartVO;
+import com.maxjang.chart.common.DetailVO;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the VIBE XML API in one forward StAX pass, keeping only the fields the service returns.
+ * A 300-track chart never becomes a DOM, so memory stays at one record plus the result list.
+ *
+ * <p>Field matching mirrors the jsoup selectors this replaced: {@code rank > currentRank},
+ * {@code album > albumTitle}, {@code album > artists > artist > artistName} and so on, relative to
+ * each record element. Text is whitespace-normalized the way {@code Element.text()} does it.
+ */
+final class VibeXmlReader {
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+    private static final String[] CHART_TRACK = {"response", "result", "chart", "items", "tracks", "track"};
+    private static final String[] ALBUM = {"response", "result", "albums", "album"};
+    private static final String[] ALBUM_TRACK = {"response", "result", "tracks", "track"};
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private VibeXmlReader() {
+    }
+
+    static List<ChartVO> readChart(InputStream body, String charset) throws IOException {
+        List<ChartVO> data = new ArrayList<>();
+        try (Cursor cursor = new Cursor(body, charset)) {
+            while (cursor.nextRecord(CHART_TRACK)) {
+                String rank = "";
+                String rankVariation = "";
+                String title = "";
+                String albumName = "";
+                String albumArt = "";
+                String songNumber = "";
+                StringBuilder artistName = new StringBuilder();
+
+                while (cursor.nextInRecord()) {
+                    switch (cursor.name(0)) {
+                        case "trackId":
+                            songNumber = cursor.text();
+                            break;
+                        case "trackTitle":
+                            title = cursor.text();
+                            break;
+                        case "currentRank":
+                            if (cursor.nameIs(1, "rank")) rank = cursor.text();
+                            break;
+                        case "rankVariation":
+                            if (cursor.nameIs(1, "rank")) rankVariation = cursor.text();
+                            break;
+                        case "albumTitle":
+                            if (cursor.nameIs(1, "album")) albumName = cursor.text();
+                            break;
+                        case "imageUrl":
+                            if (cursor.nameIs(1, "album")) albumArt = cursor.text();
+                            break;
+                        case "artistName":
+                            if (cursor.nameIs(1, "artist") && cursor.nameIs(2, "artists") && cursor.nameIs(3, "album")) {
+                                appendText(artistName, cursor.text());
+                            }
+                            break;
+                        default:
+                            break;
+                    }
+                }
+
+                ChartVO.ChartVOBuilder chart = ChartVO.builder()
+                        .rank(Integer.parseInt(rank))
+                        .artistName(artistName.toString())
+                        .title(title)
+                        .albumName(albumName)
+                        .albumArt(albumArt)
+                        .songNumber(songNumber);
+                setRankStatus(chart, rankVariation);
+                data.add(chart.build());
+            }
+        }
+        return data;
+    }
+
+    static List<DetailVO> readAlbums(InputStream body, String charset) throws IOException {
+        return readDetails(body, charset, ALBUM, "albumTitle", "albumId");
+    }
+
+    static List<DetailVO> readAlbumTracks(InputStream body, String charset) throws IOException {
+        return readDetails(body, charset, ALBUM_TRACK, "trackTitle", "trackId");
+    }
+
+    private static List<DetailVO> readDetails(
+            InputStream body, String charset, String[] record, String titleName, String numberName) throws IOException {
+        List<DetailVO> data = new ArrayList<>();
+        try (Cursor cursor = new Cursor(body, charset)) {
+            while (cursor.nextRecord(record)) {
+                StringBuilder title = new StringBuilder();
+                StringBuilder number = new StringBuilder();
+                while (cursor.nextInRecord()) {
+                    String name = cursor.name(0);
+                    if (name.equals(titleName)) {
+                        appendText(title, cursor.text());
+                    } else if (name.equals(numberName)) {
+                        appendText(number, cursor.text());
+                    }
+                }
+                data.add(DetailVO.builder()
+                        .title(title.toString())
+                        .number(number.toString())
+                        .build());
+            }
+        }
+        return data;
+    }
+
+    // rankVariation: 0 = static, negative = down, positive = up
+    private static void setRankStatus(ChartVO.ChartVOBuilder chart, String rankVariation) {
+        int variation = rankVariation.isEmpty() ? 0 : Integer.parseInt(rankVariation);
+        if (variation == 0) {
+            chart.rankStatus("static").changedRank(0);
+        } else if (variation < 0) {
+            chart.rankStatus("down").changedRank(-variation);
+        } else {
+            chart.rankStatus("up").changedRank(variation);
+        }
+    }
+
+    // Same joining as Elements.text() for selectors that match more than one element
+    private static void appendText(StringBuilder sb, String text) {
+        if (text.isEmpty()) return;
+        if (sb.length() > 0) sb.append(' ');
+        sb.append(text);
+    }
+
+    /**
+     * Thin wrapper over {@link XMLStreamReader} that tracks the element path, so records and fields
+     * can be matched by their ancestors.
+     */
+    private static final class Cursor implements AutoCloseable {
+        private final XMLStreamReader reader;
+        private final StringBuilder text = new StringBuilder();
+        private String[] path = new String[16];
+        private int depth;
+        private int recordDepth;
+
+        Cursor(InputStream body, String charset) throws IOException {
+            try {
+                reader = charset != null ? FACTORY.createXMLStreamReader(body, charset) : FACTORY.createXMLStreamReader(body);
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        // Moves to the start of the next element at the given path; false at the end of the document.
+        boolean nextRecord(String[] record) throws IOException {
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        push(reader.getLocalName());
+                        if (depth == record.length && pathIs(record)) {
+                            recordDepth = depth;
+                            return true;
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    }
+                }
+                return false;
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        // Moves to the next element inside the current record; false once the record has ended.
+        boolean nextInRecord() throws IOException {
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        push(reader.getLocalName());
+                        return true;
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                        if (depth < recordDepth) {
+                            return false;
+                        }
+                    }
+                }
+                return false;
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        // Name of the current element (0) or one of its ancestors (1 = parent, ...)
+        String name(int up) {
+            int index = depth - 1 - up;
+            return index >= 0 ? path[index] : null;
+        }
+
+        boolean nameIs(int up, String name) {
+            return name.equals(name(up));
+        }
+
+        // Reads all text under the current element and leaves the cursor at its end tag.
+        String text() throws IOException {
+            text.setLength(0);
+            int start = depth;
+            try {
+                while (depth >= start) {
+                    int event = reader.next();
+                    switch (event) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            push(reader.getLocalName());
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            depth--;
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            appendNormalized(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+            int length = text.length();
+            if (length > 0 && text.charAt(length - 1) == ' ') {
+                text.setLength(length - 1);
+            }
+            return text.toString();
+        }
+
+        // Collapses whitespace runs to one space and drops leading whitespace, like Element.text().
+        private void appendNormalized(char[] chars, int start, int length) {
+            for (int i = start; i < start + length; i++) {
+                char c = chars[i];
+                if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u00a0') {
+                    if (text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+                        text.append(' ');
+                    }
+                } else {
+                    text.append(c);
+                }
+            }
+        }
+
+        private void push(String name) {
+            if (depth == path.length) {
+                String[] grown = new String[depth * 2];
+                System.arraycopy(path, 0, grown, 0, depth);
+                path = grown;
+            }
+            path[depth++] = name;
+        }
+
+        private boolean pathIs(String[] expected) {
+            for (int i = 0; i < expected.length; i++) {
+                if (!expected[i].equals(path[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                reader.close();
+            } catch (XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChartDiffTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void listsEnteredMovedAndDroppedSongs() {
+        ChartSnapshot previous = snapshot(1, row(1, "100", "EXO"), row(2, "200", "IU"), row(3, "300", "aespa"));
+        ChartSnapshot current = snapshot(2, row(1, "200", "IU"), row(2, "100", "EXO"), row(3, "400", "태연 (TAEYEON)"));
+
+        ChartDiffVO diff = ChartDiff.between(previous, current);
+
+        assertEquals(Arrays.asList("up:200:1", "down:100:1", "entered:400:null", "dropped:300:null"), describe(diff));
+        assertEquals(Long.valueOf(1), diff.getPreviousVersion());
+        assertEquals(Arrays.asList("entered:400:null"), describe(ChartDiff.filterByArtist(diff, "TAEYEON")));
+    }
+
+    @Test
+    void changeStreamFilterAgreesWithTheChartFilter() {
+        ChartSnapshot previous = snapshot(1);
+        ChartSnapshot current = snapshot(2, row(1, "100", "EX"), row(2, "200", "EXO"), row(3, "300", "태연 (TAEYEON)"), row(4, "400", "aespa"));
+        ChartDiffVO diff = ChartDiff.between(previous, current);
+
+        for (String query : Arrays.asList("EX", "EXO", "exo", " EX ", "태연", "taeyeon", "TAEYEON", "a", "ZZ")) {
+            List<String> charted = current.filterByArtist(query).stream().map(ChartVO::getSongNumber).collect(Collectors.toList());
+            List<String> streamed = ChartDiff.filterByArtist(diff, query).getChanges().stream()
+                    .map(RankChangeVO::getSongNumber)
+                    .collect(Collectors.toList());
+            assertEquals(charted, streamed, query);
+        }
+    }
+
+    private static List<String> describe(ChartDiffVO diff) {
+        return diff.getChanges().stream()
+                .map(change -> change.getChange() + ":" + change.getSongNumber() + ":" + change.getChangedRank())
+                .collect(Collectors.toList());
+    }
+
+    private ChartSnapshot snapshot(long version, ChartVO... rows) {
+        return new ChartSnapshot(ChartType.MELON_TOP100, Arrays.asList(rows), Instant.now(), version, objectMapper);
+    }
+
+    private static ChartVO row(int rank, String songNumber, String artistName) {
+        return ChartVO.builder().rank(rank).songNumber(songNumber).artistName(artistName).title("Growl").build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ChartHistoryStoreTests {
+
+    private static final Instant ONE_AM = Instant.parse("2026-10-17T16:00:00Z"); // 01:00 KST
+    private static final Instant TWO_AM = Instant.parse("2026-10-17T17:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void answersTheLastSnapshotFetchedBeforeTheRequestedTime() throws Exception {
+        ChartHistoryStore store = store();
+        store.append(snapshot(ChartType.MELON_TOP100, ONE_AM, 1, row(1, "100", "EXO"), row(2, "200", "IU")));
+        store.append(snapshot(ChartType.MELON_HOT100_D30, ONE_AM, 2, row(1, "300", "aespa")));
+        store.append(snapshot(ChartType.MELON_TOP100, TWO_AM, 3, row(1, "200", "IU"), row(2, "100", "EXO")));
+
+        assertNull(store.snapshotAt(ChartType.MELON_TOP100, ONE_AM.minusSeconds(1)));
+        assertEquals(1, store.snapshotAt(ChartType.MELON_TOP100, ONE_AM.plusSeconds(1800)).getVersion());
+        assertEquals("IU", store.snapshotAt(ChartType.MELON_TOP100, TWO_AM).getRows().get(0).getArtistName());
+        assertEquals(2, store.snapshotAt(ChartType.MELON_HOT100_D30, TWO_AM).getVersion());
+    }
+
+    @Test
+    void readsSongRanksBackAfterRestart() throws Exception {
+        ChartHistoryStore store = store();
+        store.append(snapshot(ChartType.MELON_TOP100, ONE_AM, 1, row(1, "100", "EXO"), row(2, "200", "IU")));
+        store.append(snapshot(ChartType.MELON_TOP100, TWO_AM, 2, row(1, "200", "IU"), row(2, "100", "EXO")));
+
+        // Simulate a crash halfway through a third append.
+        Path segment = dir.resolve("melon").resolve("2026-10-18.seg");
+        Files.write(segment, new byte[] {0, 0, 1, 0, 7}, StandardOpenOption.APPEND);
+
+        List<RankPointVO> points = store().songHistory("melon", null, "100", ONE_AM, TWO_AM);
+        assertEquals(Arrays.asList(1, 2), Arrays.asList(points.get(0).getRank(), points.get(1).getRank()));
+        assertEquals("melon/top100", points.get(1).getChart());
+        assertEquals(TWO_AM.toString(), points.get(1).getAt());
+    }
+
+    @Test
+    void doesNotAppendTheSameChartAgainAfterAWarmStart() throws Exception {
+        store().append(snapshot(ChartType.MELON_TOP100, ONE_AM, 1, row(1, "100", "EXO"), row(2, "200", "IU")));
+
+        // After a restart the cache serves latest() and its first refresh builds a new version of the same rows.
+        ChartHistoryStore restarted = store();
+        restarted.append(snapshot(ChartType.MELON_TOP100, TWO_AM, 7, row(1, "100", "EXO"), row(2, "200", "IU")));
+        restarted.append(snapshot(ChartType.MELON_TOP100, TWO_AM.plusSeconds(600), 8, row(1, "100", "EXO"), row(2, "200", "IU")));
+
+        assertEquals(1, restarted.latest(ChartType.MELON_TOP100).getVersion());
+        assertEquals(1, restarted.songHistory("melon", "top100", "100", ONE_AM, TWO_AM.plusSeconds(600)).size());
+
+        restarted.append(snapshot(ChartType.MELON_TOP100, TWO_AM.plusSeconds(1200), 9, row(1, "200", "IU"), row(2, "100", "EXO")));
+        assertEquals(9, restarted.latest(ChartType.MELON_TOP100).getVersion());
+    }
+
+    @Test
+    void readsARangeOfMorePastDaysThanItKeepsOpen() throws Exception {
+        ChartHistoryStore store = store();
+        Instant first = Instant.parse("2026-09-01T03:00:00Z");
+        for (int day = 0; day < 12; day++) {
+            store.append(snapshot(ChartType.MELON_TOP100, first.plus(Duration.ofDays(day)), day + 1,
+                    row(day + 1, "100", "EXO"), row(1, "200", "IU")));
+        }
+
+        List<RankPointVO> points = store.songHistory("melon", "top100", "100", first, first.plus(Duration.ofDays(11)));
+        assertEquals(12, points.size());
+        assertEquals(12, points.get(11).getRank());
+        assertEquals(1, store.snapshotAt(ChartType.MELON_TOP100, first.plusSeconds(60)).getVersion());
+    }
+
+    private ChartHistoryStore store() {
+        return new ChartHistoryStore(dir, Duration.ofDays(90), objectMapper);
+    }
+
+    private ChartSnapshot snapshot(ChartType type, Instant fetchedAt, long version, ChartVO... rows) {
+        return new ChartSnapshot(type, Arrays.asList(rows), fetchedAt, version, objectMapper);
+    }
+
+    private static ChartVO row(int rank, String songNumber, String artistName) {
+        return ChartVO.builder().rank(rank).rankStatus("static").changedRank(0)
+                .songNumber(songNumber).artistName(artistName).title("Growl").build();
+    }
+}
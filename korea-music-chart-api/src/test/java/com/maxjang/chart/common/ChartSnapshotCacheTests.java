@@ -0,0 +1,145 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartSnapshotCacheTests {
+
+    private ThreadPoolTaskScheduler scheduler;
+    private ChartSnapshotCache cache;
+
+    @TempDir
+    Path historyDir;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(2);
+        scheduler.initialize();
+        cache = newCache(Duration.ofSeconds(30));
+    }
+
+    private ChartSnapshotCache newCache(Duration loadTimeout) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return new ChartSnapshotCache(scheduler, objectMapper, new ChartHistoryStore(historyDir, Duration.ofDays(90), objectMapper),
+                new SimpleMeterRegistry(), loadTimeout);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void concurrentColdReadsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        cache.register(ChartType.MELON_TOP100, () -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return Collections.singletonList(row("EXO"));
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<ChartSnapshot>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> cache.get(ChartType.MELON_TOP100)));
+        }
+        release.countDown();
+
+        ChartSnapshot first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<ChartSnapshot> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        callers.shutdown();
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousSnapshot() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        cache.register(ChartType.GENIE_TOP200, () -> {
+            if (loads.incrementAndGet() > 1) {
+                throw new IllegalStateException("upstream down");
+            }
+            return Collections.singletonList(row("EXO"));
+        });
+
+        ChartSnapshot loaded = cache.get(ChartType.GENIE_TOP200);
+        assertThrows(Exception.class, () -> cache.refreshAsync(ChartType.GENIE_TOP200).join());
+
+        assertSame(loaded, cache.get(ChartType.GENIE_TOP200));
+        assertTrue(cache.getStatus().get(0).getLastError().contains("upstream down"));
+    }
+
+    @Test
+    void hungLoadTimesOutAndTheNextRefreshStartsOver() throws Exception {
+        ChartSnapshotCache cache = newCache(Duration.ofMillis(300));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        cache.register(ChartType.BUGS_TOP100, () -> {
+            if (loads.incrementAndGet() == 1) {
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                    throw ex;
+                }
+            }
+            return Collections.singletonList(row("EXO"));
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(UpstreamUnavailableException.class, () -> cache.get(ChartType.BUGS_TOP100)));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertFalse(cache.getStatus().get(0).getRefreshing());
+
+        assertEquals("EXO", cache.get(ChartType.BUGS_TOP100).getRows().get(0).getArtistName());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void notReadyUntilAFailedFirstLoadSucceeds() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        cache.register(ChartType.VIBE_TOP100, () -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("upstream down");
+            }
+            return Collections.singletonList(row("EXO"));
+        });
+
+        assertThrows(Exception.class, () -> cache.refreshAsync(ChartType.VIBE_TOP100).join());
+        assertFalse(cache.isReady());
+
+        cache.refreshAsync(ChartType.VIBE_TOP100).join();
+        assertTrue(cache.isReady());
+    }
+
+    private static ChartVO row(String artistName) {
+        return ChartVO.builder().rank(1).artistName(artistName).title("Growl").build();
+    }
+}
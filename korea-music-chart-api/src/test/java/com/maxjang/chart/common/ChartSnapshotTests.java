@@ -0,0 +1,41 @@
+package com.maxjang.chart.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChartSnapshotTests {
+
+    private final List<ChartVO> rows = Arrays.asList(
+            row(1, "EX"), row(2, "EXO"), row(3, "태연 (TAEYEON), 10CM"), row(4, null), row(5, "aespa"), row(6, "태민 (TAEMIN)"));
+    private final ChartSnapshot snapshot = new ChartSnapshot(ChartType.MELON_TOP100, rows, Instant.now(), 1, new ObjectMapper());
+
+    @Test
+    void filterFindsTheSameRowsAsAPlainSubstringScan() {
+        for (String query : Arrays.asList("EX", "EXO", "exo", " EXO ", "X", "태", "태연", "TAE", "taeyeon", "(TAE", "10CM", "aespa", "ZZ")) {
+            assertEquals(scan(query.trim()), snapshot.filterByArtist(query), query);
+            // Remembered results must not differ from the first answer.
+            assertEquals(scan(query.trim()), snapshot.filterByArtist(query), query);
+        }
+    }
+
+    private List<ChartVO> scan(String needle) {
+        List<ChartVO> matched = new ArrayList<>();
+        for (ChartVO row : rows) {
+            if (row.getArtistName() != null && row.getArtistName().contains(needle)) {
+                matched.add(row);
+            }
+        }
+        return matched;
+    }
+
+    private static ChartVO row(int rank, String artistName) {
+        return ChartVO.builder().rank(rank).songNumber(String.valueOf(rank)).artistName(artistName).title("Growl").build();
+    }
+}
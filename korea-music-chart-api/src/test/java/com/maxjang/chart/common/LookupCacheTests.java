@@ -0,0 +1,54 @@
+package com.maxjang.chart.common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LookupCacheTests {
+
+    private final LookupCache lookupCache =
+            new LookupCache(Duration.ofHours(1), Duration.ofHours(1), DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+
+    @Test
+    void sharesOneFetchBetweenSpellingsOfTheSameSearch() {
+        AtomicInteger fetches = new AtomicInteger();
+        CompletableFuture<List<DetailVO>> upstream = new CompletableFuture<>();
+
+        CompletableFuture<List<DetailVO>> first = lookupCache.getAlbums("melon", "IU", 1, () -> {
+            fetches.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<List<DetailVO>> second = lookupCache.getAlbums("melon", " ＩＵ ", 1, () -> {
+            fetches.incrementAndGet();
+            return upstream;
+        });
+        upstream.complete(Collections.singletonList(DetailVO.builder().title("Palette").number("10050000").build()));
+
+        assertSame(first, second);
+        assertEquals("Palette", second.join().get(0).getTitle());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void fetchesAgainAfterAFailure() {
+        CompletableFuture<List<DetailVO>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IOException("upstream down"));
+
+        assertTrue(lookupCache.getSongLists("genie", "123", () -> failed).isCompletedExceptionally());
+        List<DetailVO> songs = lookupCache.getSongLists("genie", "123",
+                () -> CompletableFuture.completedFuture(Collections.emptyList())).join();
+
+        assertTrue(songs.isEmpty());
+    }
+}
@@ -0,0 +1,63 @@
+package com.maxjang.chart.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchCursorTests {
+
+    @Test
+    void walksPagesUntilTheSiteRepeatsOrRunsOut() {
+        SearchCursor first = SearchCursor.parse(null, SearchCursor.UNKNOWN_PAGE_SIZE);
+        ResponseFormat<DetailVO> page1 = first.respond(Arrays.asList(album("1"), album("2")));
+        assertEquals(1, first.getPage());
+
+        SearchCursor second = SearchCursor.parse(page1.getNextCursor(), SearchCursor.UNKNOWN_PAGE_SIZE);
+        assertEquals(2, second.getPage());
+        ResponseFormat<DetailVO> repeated = second.respond(Arrays.asList(album("1"), album("2")));
+        assertTrue(repeated.getData().isEmpty());
+        assertNull(repeated.getNextCursor());
+
+        assertNull(second.respond(Collections.<DetailVO>emptyList()).getNextCursor());
+        List<DetailVO> page2 = second.respond(Arrays.asList(album("3"))).getData();
+        assertEquals("3", page2.get(0).getNumber());
+    }
+
+    @Test
+    void stopsAtAPageShorterThanThePageSize() {
+        SearchCursor first = SearchCursor.parse(null, 3);
+        String next = first.respond(Arrays.asList(album("1"), album("2"), album("3"))).getNextCursor();
+
+        ResponseFormat<DetailVO> last = SearchCursor.parse(next, 3).respond(Arrays.asList(album("4"), album("5")));
+        assertEquals(2, last.getData().size());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void keepsPagingWhenResultsShiftByOne() {
+        String next = SearchCursor.parse(null, 3).respond(Arrays.asList(album("1"), album("2"), album("3"))).getNextCursor();
+
+        // A new release moved album 3 from the (cached) first page onto the second.
+        ResponseFormat<DetailVO> shifted = SearchCursor.parse(next, 3).respond(Arrays.asList(album("3"), album("4"), album("5")));
+        assertEquals(Arrays.asList("4", "5"), Arrays.asList(shifted.getData().get(0).getNumber(), shifted.getData().get(1).getNumber()));
+        assertEquals(3, SearchCursor.parse(shifted.getNextCursor(), 3).getPage());
+    }
+
+    @Test
+    void refusesCursorsItDidNotIssue() {
+        assertThrows(ResponseStatusException.class, () -> SearchCursor.parse("not-a-cursor", 2));
+        assertThrows(ResponseStatusException.class, () -> SearchCursor.parse("MTox", 2)); // page 1
+    }
+
+    private static DetailVO album(String number) {
+        return DetailVO.builder().title("album " + number).number(number).build();
+    }
+}
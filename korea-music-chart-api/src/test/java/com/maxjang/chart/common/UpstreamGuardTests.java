@@ -0,0 +1,33 @@
+package com.maxjang.chart.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamGuardTests {
+
+    @Test
+    void interruptedTrialDoesNotKeepTheCircuitOpen() throws Exception {
+        UpstreamGuard guard = new UpstreamGuard("www.melon.com", 20, 1, 1, Duration.ZERO);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        guard.acquire(deadline);
+        guard.onFailure(new IOException("connect timed out"));
+
+        // The half-open trial waits for a token and is interrupted (a refresh abandoned on timeout).
+        Thread.currentThread().interrupt();
+        try {
+            UpstreamUnavailableException ex = assertThrows(UpstreamUnavailableException.class, () -> guard.acquire(deadline));
+            assertEquals("www.melon.com unavailable: interrupted", ex.getMessage());
+        } finally {
+            Thread.interrupted();
+        }
+
+        guard.acquire(deadline);
+        guard.onSuccess();
+        assertEquals("closed", guard.getStatus().getState());
+    }
+}
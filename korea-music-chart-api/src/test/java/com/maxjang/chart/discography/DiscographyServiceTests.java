@@ -0,0 +1,45 @@
+package com.maxjang.chart.discography;
+
+import com.maxjang.chart.common.DetailVO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiscographyServiceTests {
+
+    private final DiscographyService discographyService = new DiscographyService(null, null, null, null, 2, 50);
+
+    @Test
+    void fetchesAFewAlbumsAtATimeAndKeepsTheirOrder() {
+        Map<String, CompletableFuture<List<DetailVO>>> pending = new HashMap<>();
+        List<DetailVO> albums = discographyService.batchAlbums(Arrays.asList("1", " 2", "3", "2", ""));
+
+        CompletableFuture<List<AlbumTracksVO>> result = discographyService.getSongLists(albums, number -> {
+            CompletableFuture<List<DetailVO>> songs = new CompletableFuture<>();
+            pending.put(number, songs);
+            return songs;
+        });
+
+        assertEquals(2, pending.size());
+        pending.get("2").complete(Collections.singletonList(DetailVO.builder().title("eight").number("200").build()));
+        assertEquals(3, pending.size());
+        pending.get("3").completeExceptionally(new IOException("upstream down"));
+        pending.get("1").complete(Collections.emptyList());
+
+        assertTrue(result.isDone());
+        assertEquals(Arrays.asList("1:ok", "2:ok", "3:error"), result.join().stream()
+                .map(album -> album.getNumber() + ":" + album.getStatus())
+                .collect(Collectors.toList()));
+        assertEquals("upstream_unavailable", result.join().get(2).getError());
+    }
+}